@@ -51,7 +51,22 @@ function setup_testing_input_output {
 
   rm -r ${TEST_OUTPUT_PATH}/venmo_input/*
   rm -r ${TEST_OUTPUT_PATH}/venmo_output/*
-  cp -r ${GRADER_ROOT}/tests/${test_folder}/venmo_input/venmo-trans.txt ${TEST_OUTPUT_PATH}/venmo_input/venmo-trans.txt
+  cp -r ${GRADER_ROOT}/tests/${test_folder}/venmo_input/* ${TEST_OUTPUT_PATH}/venmo_input/
+  if [ -f ${GRADER_ROOT}/tests/${test_folder}/args ]; then
+    cp ${GRADER_ROOT}/tests/${test_folder}/args ${TEST_OUTPUT_PATH}/args
+  fi
+}
+
+# run the project once, or once per line of the test's args file with
+# that line as command line options
+function run_project {
+  if [ -f args ]; then
+    while read -r run_args; do
+      bash run.sh ${run_args} < /dev/null 2>&1
+    done < args
+  else
+    bash run.sh 2>&1
+  fi
 }
 
 function compare_outputs {
@@ -59,7 +74,9 @@ function compare_outputs {
   TEST_ANSWER_PATH=${GRADER_ROOT}/tests/${test_folder}/venmo_output/output.txt
 
   DIFF_RESULT=$(diff -bB ${PROJECT_ANSWER_PATH} ${TEST_ANSWER_PATH} | wc -l)
-  if [ "${DIFF_RESULT}" -eq "0" ] && [ -f ${PROJECT_ANSWER_PATH} ]; then
+  # a run with -verify prints ERROR for every median which differs from the reference engine
+  VERIFY_ERRORS=$(echo "${RUN_OUTPUT}" | grep -c '^ERROR')
+  if [ "${DIFF_RESULT}" -eq "0" ] && [ -f ${PROJECT_ANSWER_PATH} ] && [ "${VERIFY_ERRORS}" -eq "0" ]; then
     echo -e "[${color_green}PASS${color_norm}]: ${test_folder}"
     PASS_CNT=$(($PASS_CNT+1))
   else
@@ -79,7 +96,10 @@ function run_all_tests {
     setup_testing_input_output
 
     cd ${GRADER_ROOT}/temp
-    bash run.sh 2>&1
+    RUN_OUTPUT=$(run_project)
+    if [ -n "${RUN_OUTPUT}" ]; then
+      echo "${RUN_OUTPUT}"
+    fi
     cd ../
 
     compare_outputs
@@ -1,6 +1,6 @@
 #!/bin/bash
 
-cp ./src/median_degree.java .
-javac ./median_degree.java
-java median_degree
+mkdir -p ./classes
+javac -d ./classes ./src/median_degree.java ./src/mediandegree/*.java
+java -cp ./classes median_degree "$@"
 
@@ -0,0 +1,550 @@
+package mediandegree;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Scanner;
+
+//  Bench is the micro benchmark harness of -bench option. Like JMH, each benchmark runs
+//  warm-up iterations for JIT compiler and then measurement iterations, and it reports
+//  mean and standard deviation of ns per operation and allocated bytes per operation.
+//  Input data is loaded into memory before timing, so file I/O and JVM startup are not measured.
+//
+//  Benchmarks :
+//    parse  : parse_payment(StringBuffer) and PaymentParser, per line
+//    epoch  : SimpleDateFormat (first version) and TimestampDecoder, per timestamp
+//    graph  : advance_window() with add_1_edge() and delete_1_epoch_from_E(), per payment
+//    median : degree updates recorded from graph, replayed on each median engine, per update
+//    output : DecimalFormat with PrintWriter (first version) and MedianWriter, per median
+//    read   : Scanner.nextLine() (first version), LineReader and MappedLineReader on input
+//             written to a temporary file, per line
+//    pool   : EnginePool with payments spread over 1 or 1000 tenants by actor, per payment
+//    log    : replay of JSON lines and of PaymentLog from temporary files, with DegreeHistogram
+//             and output to a temporary file, per line
+//    metrics : run of input lines without and with -metrics in turns, per line, and overhead of medians
+//    sample : medians of -sample 0.5, 0.1 and 0.01 against exact medians of the same lines :
+//             rank error, % of lines over the error bound, and peak edges and users in window
+//    offheap : graph with -offheap window state, per payment. It runs after the other benchmarks.
+//
+//  Each benchmark runs on every input file of a profile directory (window density grows with
+//  file size), or on a generated input with given number of users and density.
+class Bench {
+	static final int WARMUP = 5;
+	static final int MEASURE = 10;
+	static final int ROUNDS = 30; // rounds of measure_rounds()
+
+	String label;  // name of input
+	byte[] data;   // whole input
+	int[] begin;   // lines are data[begin[j], end[j])
+	int[] end;
+	int n;         // number of lines
+
+	Bench (String label_in, byte[] data_in) {
+		label = label_in;
+		data = data_in;
+		begin = new int[1024];
+		end = new int[1024];
+		for (int b = 0, e = 0; b < data.length; b = e + 1) {
+			for (e = b; e < data.length && data[e] != '\n'; e++);
+			int e1 = (e > b && data[e-1] == '\r') ? e - 1 : e;
+			if (e1 == b) continue;
+			if (n == begin.length) {
+				begin = Arrays.copyOf(begin, 2 * n);
+				end = Arrays.copyOf(end, 2 * n);
+			}
+			begin[n] = b;
+			end[n++] = e1;
+		}
+	}
+
+	static void run (String names, String fn, int users, int density, int payments) throws IOException {
+		ArrayList<Bench> inputs = new ArrayList<Bench>();
+		File f = new File(fn);
+		if (users > 0) {
+			inputs.add(new Bench(users + " users density " + density, generate(payments, users, density, 1)));
+		} else if (f.isDirectory()) {
+			File[] files = f.listFiles();
+			Arrays.sort(files, (x, y) -> Long.compare(x.length(), y.length()));
+			for (File x : files) {
+				inputs.add(new Bench(x.getName(), java.nio.file.Files.readAllBytes(x.toPath())));
+			}
+		} else {
+			inputs.add(new Bench(f.getName(), java.nio.file.Files.readAllBytes(f.toPath())));
+		}
+		System.out.println(String.format("%-24s %-28s %9s %12s %10s %8s", "benchmark", "input", "ops",
+				"ns/op", "stddev", "B/op"));
+		boolean flagOffHeap = false;
+		for (Bench b : inputs) {
+			for (String name : names.split(",")) {
+				boolean all = name.equals("all");
+				if (all || name.equals("parse")) b.bench_parse();
+				if (all || name.equals("epoch")) b.bench_epoch();
+				if (all || name.equals("graph")) b.bench_graph();
+				if (all || name.equals("median")) b.bench_median();
+				if (all || name.equals("output")) b.bench_output();
+				if (all || name.equals("read")) b.bench_read();
+				if (all || name.equals("pool")) b.bench_pool();
+				if (all || name.equals("log")) b.bench_log();
+				if (all || name.equals("metrics")) b.bench_metrics();
+				if (all || name.equals("sample")) b.bench_sample();
+				flagOffHeap |= all || name.equals("offheap");
+			}
+		}
+		if (flagOffHeap) {
+			for (Bench b : inputs) b.bench_offheap();
+		}
+	}
+
+	//  to run body for warm-up and measurement iterations. body returns a value to keep its
+	//  results alive, and it does ops operations in each iteration.
+	void measure (String name, int ops, java.util.function.LongSupplier body) {
+		long sink = 0;
+		double[] ns = new double[MEASURE];
+		long bytes = 0;
+		for (int it = -WARMUP; it < MEASURE; it++) {
+			long bytes0 = median_degree.allocated_bytes();
+			long t0 = System.nanoTime();
+			sink += body.getAsLong();
+			long t1 = System.nanoTime();
+			if (it >= 0) {
+				ns[it] = (double) (t1 - t0) / ops;
+				bytes += median_degree.allocated_bytes() - bytes0;
+			}
+		}
+		double mean = 0, var = 0;
+		for (double x : ns) mean += x / MEASURE;
+		for (double x : ns) var += (x - mean) * (x - mean) / (MEASURE - 1);
+		System.out.println(String.format("%-24s %-28s %9d %12.1f %10.1f %8d", name, label, ops, mean,
+				Math.sqrt(var), bytes / MEASURE / ops) + ((sink == 42) ? " " : ""));
+	}
+
+	//  to run bodies in turns : each round runs every body once, starting from a different body in
+	//  each round, after WARMUP rounds. It is for bodies to be compared with each other, as slow
+	//  drift during the run is shared by all of them. It reports median ns per operation of the
+	//  rounds (with standard deviation) for each body, and returns the medians.
+	double[] measure_rounds (String[] names, int ops, int rounds, java.util.function.LongSupplier[] bodies) {
+		int k = bodies.length;
+		long sink = 0;
+		double[][] ns = new double[k][rounds];
+		long[] bytes = new long[k];
+		for (int it = -WARMUP; it < rounds; it++) {
+			for (int j = 0; j < k; j++) {
+				int b = (j + it + WARMUP) % k;
+				long bytes0 = median_degree.allocated_bytes();
+				long t0 = System.nanoTime();
+				sink += bodies[b].getAsLong();
+				long t1 = System.nanoTime();
+				if (it >= 0) {
+					ns[b][it] = (double) (t1 - t0) / ops;
+					bytes[b] += median_degree.allocated_bytes() - bytes0;
+				}
+			}
+		}
+		double[] median = new double[k];
+		for (int b = 0; b < k; b++) {
+			double mean = 0, var = 0;
+			for (double x : ns[b]) mean += x / rounds;
+			for (double x : ns[b]) var += (x - mean) * (x - mean) / (rounds - 1);
+			double[] sorted = ns[b].clone();
+			Arrays.sort(sorted);
+			median[b] = 0.5 * (sorted[(rounds - 1) / 2] + sorted[rounds / 2]);
+			System.out.println(String.format("%-24s %-28s %9d %12.1f %10.1f %8d", names[b], label, ops, median[b],
+					Math.sqrt(var), bytes[b] / rounds / ops) + ((sink == 42) ? " " : ""));
+		}
+		return median;
+	}
+
+	void bench_parse () {
+		String[] lines = new String[n];
+		for (int j = 0; j < n; j++) {
+			lines[j] = new String(data, begin[j], end[j] - begin[j], StandardCharsets.UTF_8);
+		}
+		measure("parse_payment", n, () -> {
+			long sum = 0;
+			for (int j = 0; j < n; j++) {
+				Payment p = median_degree.parse_payment(new StringBuffer(lines[j]));
+				if (p != null) sum += p.epoch;
+			}
+			return sum;
+		});
+		PaymentParser parser = new PaymentParser();
+		measure("PaymentParser", n, () -> {
+			long sum = 0;
+			for (int j = 0; j < n; j++) {
+				parser.parse(data, begin[j], end[j]);
+				sum += parser.epoch + parser.actorEnd + parser.targetEnd;
+			}
+			return sum;
+		});
+	}
+
+	void bench_epoch () {
+		String[] stamps = new String[n];
+		PaymentParser parser = new PaymentParser();
+		for (int j = 0; j < n; j++) {
+			parser.parse(data, begin[j], end[j]);
+			stamps[j] = new String(data, parser.timeBegin, parser.timeEnd - parser.timeBegin, StandardCharsets.ISO_8859_1);
+		}
+		measure("SimpleDateFormat", n, () -> {
+			long sum = 0;
+			for (int j = 0; j < n; j++) {
+				StringBuffer ts = new StringBuffer(stamps[j]);
+				ts.replace(10, 11, " ");
+				try {
+					sum += (new SimpleDateFormat("yyyy-MM-dd HH:mm:ss")).parse(ts.toString()).getTime() / 1000;
+				} catch (ParseException e) {
+					e.printStackTrace();
+				}
+			}
+			return sum;
+		});
+		TimestampDecoder decoder = new TimestampDecoder();
+		measure("TimestampDecoder", n, () -> {
+			long sum = 0;
+			for (int j = 0; j < n; j++) sum += decoder.decode(stamps[j]);
+			return sum;
+		});
+	}
+
+	//  to replay all payments on an empty graph. Lines are parsed before timing.
+	long replay_graph (long[] epochs, int[] actor, int[] target, RollingMedianDegree g) {
+		long sum = 0;
+		for (int j = 0; j < n; j++) {
+			if (g.advance_window(epochs[j]) && actor[j] != target[j]) {
+				g.add_payment(g.users.intern(data, actor[j], end_of(actor[j])),
+						g.users.intern(data, target[j], end_of(target[j])), epochs[j]);
+			}
+			sum += g.count_edges();
+		}
+		return sum;
+	}
+
+	//  end of a name which begins at b, i.e. the closing quote
+	int end_of (int b) {
+		int e = b;
+		while (data[e] != '"') e++;
+		return e;
+	}
+
+	void bench_graph () {
+		long[] epochs = new long[n];
+		int[] actor = new int[n];
+		int[] target = new int[n];
+		PaymentParser parser = new PaymentParser();
+		for (int j = 0; j < n; j++) {
+			parser.parse(data, begin[j], end[j]);
+			epochs[j] = parser.epoch;
+			actor[j] = parser.actorBegin;
+			target[j] = parser.self_payment(data) ? parser.actorBegin : parser.targetBegin;
+		}
+		measure("graph update", n, () -> replay_graph(epochs, actor, target, new RollingMedianDegree(new DegreeHistogram())));
+	}
+
+	//  graph update as above, with window state off heap. It runs after other benchmarks, because
+	//  once direct arrays are loaded, calls on arrays are not inlined as calls of heap arrays only.
+	void bench_offheap () {
+		long[] epochs = new long[n];
+		int[] actor = new int[n];
+		int[] target = new int[n];
+		PaymentParser parser = new PaymentParser();
+		for (int j = 0; j < n; j++) {
+			parser.parse(data, begin[j], end[j]);
+			epochs[j] = parser.epoch;
+			actor[j] = parser.actorBegin;
+			target[j] = parser.self_payment(data) ? parser.actorBegin : parser.targetBegin;
+		}
+		measure("graph update offheap", n, () -> replay_graph(epochs, actor, target, new RollingMedianDegree(new DegreeHistogram(),
+				RollingMedianDegree.CAPACITY, RollingMedianDegree.WINDOW, RollingMedianDegree.WINDOW - 1, false, true)));
+	}
+
+	//  medians of sampled graphs (-sample) against the exact graph, on the same lines. For each
+	//  rate, it reports rank error of medians in exact degrees (max and mean over lines with a
+	//  nonempty sample), % of lines whose error is over the bound of rank_error(0.01), # of lines
+	//  with an empty sample, and peak # of edges and users in graph.
+	void bench_sample () {
+		double[] rates = {0.5, 0.1, 0.01};
+		RollingMedianDegree exact = new RollingMedianDegree(new DegreeHistogram());
+		exact.track_order();
+		RollingMedianDegree[] g = new RollingMedianDegree[rates.length];
+		for (int r = 0; r < rates.length; r++) {
+			g[r] = new RollingMedianDegree(new DegreeHistogram());
+			g[r].sample_users(rates[r]);
+		}
+		double[] max = new double[rates.length], sum = new double[rates.length];
+		int[] over = new int[rates.length], empty = new int[rates.length];
+		int[] edges = new int[rates.length], users = new int[rates.length];
+		int lines = 0, exactEdges = 0, exactUsers = 0;
+		PaymentParser parser = new PaymentParser();
+		for (int j = 0; j < n; j++) {
+			if (!parser.parse(data, begin[j], end[j])) continue;
+			lines++;
+			exact.accept(data, parser.actorBegin, parser.actorEnd, parser.targetBegin, parser.targetEnd, parser.epoch);
+			exactEdges = Math.max(exactEdges, exact.count_edges());
+			exactUsers = Math.max(exactUsers, exact.numUsers());
+			int size = exact.order.size();
+			for (int r = 0; r < rates.length; r++) {
+				double m = g[r].accept(data, parser.actorBegin, parser.actorEnd, parser.targetBegin, parser.targetEnd,
+						parser.epoch);
+				edges[r] = Math.max(edges[r], g[r].count_edges());
+				users[r] = Math.max(users[r], g[r].numUsers());
+				if (size == 0) continue;
+				if (g[r].numDegrees == 0) {
+					empty[r]++;
+					continue;
+				}
+				// exact degrees < m and <= m, and distance of rank size / 2 from them
+				int below = exact.order.count_at_most((int) Math.ceil(m) - 1);
+				int atMost = exact.order.count_at_most((int) Math.floor(m));
+				double half = 0.5 * size;
+				double error = (half < below) ? (below - half) / size : (half > atMost) ? (half - atMost) / size : 0;
+				max[r] = Math.max(max[r], error);
+				sum[r] += error;
+				if (error > g[r].rank_error(0.01)) over[r]++;
+			}
+		}
+		for (int r = 0; r < rates.length; r++) {
+			int m = Math.max(lines - empty[r], 1);
+			System.out.println(String.format("%-24s %-28s %9d lines, rank error max %.4f mean %.4f, over bound %.2f%%,"
+					+ " empty sample %d lines, peak edges %d of %d, users %d of %d", "sample " + rates[r], label, lines,
+					max[r], sum[r] / m, 100.0 * over[r] / m, empty[r], edges[r], exactEdges, users[r], exactUsers));
+		}
+	}
+
+	void bench_median () {
+		long[] epochs = new long[n];
+		int[] actor = new int[n];
+		int[] target = new int[n];
+		PaymentParser parser = new PaymentParser();
+		for (int j = 0; j < n; j++) {
+			parser.parse(data, begin[j], end[j]);
+			epochs[j] = parser.epoch;
+			actor[j] = parser.actorBegin;
+			target[j] = parser.self_payment(data) ? parser.actorBegin : parser.targetBegin;
+		}
+		RollingMedianDegree g = new RollingMedianDegree(new DegreeHistogram());
+		g.degreeLog = new int[1 << 16];
+		replay_graph(epochs, actor, target, g);
+		int[] log = g.degreeLog;
+		int ops = g.numDegreeLog;
+		
+		for (String name : new String[] {"halfmap", "fenwick", "histogram"}) {
+			measure("median " + name, ops, () -> {
+				MedianTracker t = median_degree.new_tracker(name);
+				double sum = 0;
+				for (int j = 0; j < ops; j++) {
+					int d = log[j] >> 3;
+					switch (log[j] & 7) {
+					case RollingMedianDegree.LOG_ADD: t.add_degree(d); break;
+					case RollingMedianDegree.LOG_DELETE: t.delete_degree(d); break;
+					case RollingMedianDegree.LOG_INCREASE: t.change_degree(d, 1); break;
+					case RollingMedianDegree.LOG_DECREASE: t.change_degree(d, -1); break;
+					}
+					sum += t.get_median();
+				}
+				return (long) sum;
+			});
+		}
+	}
+
+	void bench_output () throws IOException {
+		long[] epochs = new long[n];
+		int[] actor = new int[n];
+		int[] target = new int[n];
+		PaymentParser parser = new PaymentParser();
+		for (int j = 0; j < n; j++) {
+			parser.parse(data, begin[j], end[j]);
+			epochs[j] = parser.epoch;
+			actor[j] = parser.actorBegin;
+			target[j] = parser.self_payment(data) ? parser.actorBegin : parser.targetBegin;
+		}
+		double[] medians = new double[n];
+		RollingMedianDegree g = new RollingMedianDegree(new DegreeHistogram());
+		for (int j = 0; j < n; j++) {
+			if (g.advance_window(epochs[j]) && actor[j] != target[j]) {
+				g.add_payment(g.users.intern(data, actor[j], end_of(actor[j])),
+						g.users.intern(data, target[j], end_of(target[j])), epochs[j]);
+			}
+			medians[j] = g.get_median();
+		}
+		
+		File tmp = File.createTempFile("median", ".txt");
+		tmp.deleteOnExit();
+		measure("DecimalFormat", n, () -> {
+			try (java.io.PrintWriter out = new java.io.PrintWriter(tmp)) {
+				for (int j = 0; j < n; j++) {
+					NumberFormat fm = new DecimalFormat("#0.00");
+					out.println(fm.format(medians[j]));
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return tmp.length();
+		});
+		measure("MedianWriter", n, () -> {
+			try {
+				MedianWriter out = new MedianWriter(tmp);
+				for (int j = 0; j < n; j++) out.write(medians[j]);
+				out.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return tmp.length();
+		});
+	}
+
+	void bench_log () throws IOException {
+		File tmp = File.createTempFile("payments", ".txt");
+		tmp.deleteOnExit();
+		java.nio.file.Files.write(tmp.toPath(), data);
+		File bin = File.createTempFile("payments", ".bin");
+		bin.deleteOnExit();
+		PaymentLog.convert(tmp, bin, false);
+		PaymentLog log = new PaymentLog(bin);
+		File out = File.createTempFile("median", ".txt");
+		out.deleteOnExit();
+		System.out.println(String.format("%-24s %-28s %9d bytes, log %d bytes", "size of JSON lines", label,
+				tmp.length(), bin.length()));
+		for (int mode = 0; mode < 2; mode++) {
+			boolean flagLog = (mode == 1);
+			measure(flagLog ? "replay PaymentLog" : "replay JSON lines", n, () -> {
+				try {
+					RollingMedianDegree g = new RollingMedianDegree(new DegreeHistogram());
+					MedianWriter fileOut = new MedianWriter(out);
+					if (flagLog) {
+						log.run(g, fileOut);
+					} else {
+						LineSource reader = LineSource.open(tmp, false);
+						median_degree.run_lines(g, reader, fileOut);
+						reader.close();
+					}
+					fileOut.close();
+					return g.count_edges();
+				} catch (IOException e) {
+					e.printStackTrace();
+					return 0;
+				}
+			});
+		}
+	}
+
+	//  run_lines() without and with Metrics, to see the cost of counters and sampled latencies.
+	//  The two modes take turns in ROUNDS rounds (see measure_rounds()), so drift of JIT, GC and
+	//  CPU clock during the run is shared by both, and the overhead is of their median times.
+	void bench_metrics () throws IOException {
+		File tmp = File.createTempFile("payments", ".txt");
+		tmp.deleteOnExit();
+		java.nio.file.Files.write(tmp.toPath(), data);
+		File out = File.createTempFile("median", ".txt");
+		out.deleteOnExit();
+		Metrics metrics = new Metrics();
+		java.util.function.LongSupplier[] bodies = new java.util.function.LongSupplier[2];
+		for (int mode = 0; mode < 2; mode++) {
+			boolean flagMetrics = (mode == 1);
+			bodies[mode] = () -> {
+				try {
+					RollingMedianDegree g = new RollingMedianDegree(new HalfMapMedian());
+					if (flagMetrics) {
+						g.metrics = metrics;
+						metrics.watch(g);
+					}
+					MedianWriter fileOut = new MedianWriter(out);
+					LineSource reader = LineSource.open(tmp, false);
+					median_degree.run_lines(g, reader, fileOut);
+					reader.close();
+					fileOut.close();
+					return g.count_edges();
+				} catch (IOException e) {
+					e.printStackTrace();
+					return 0;
+				}
+			};
+		}
+		double[] median = measure_rounds(new String[] {"run lines", "run lines metrics"}, n, ROUNDS, bodies);
+		System.out.println(String.format("%-24s %-28s %9s %11.1f%%", "metrics overhead", label, "",
+				100 * (median[1] / median[0] - 1)));
+	}
+
+	void bench_read () throws IOException {
+		File tmp = File.createTempFile("payments", ".txt");
+		tmp.deleteOnExit();
+		java.nio.file.Files.write(tmp.toPath(), data);
+		measure("Scanner", n, () -> {
+			long sum = 0;
+			try (Scanner scan = new Scanner(tmp)) {
+				while (scan.hasNextLine()) sum += scan.nextLine().length();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return sum;
+		});
+		for (int mode = 0; mode < 2; mode++) {
+			boolean flagMapped = (mode == 1);
+			measure(flagMapped ? "MappedLineReader" : "LineReader", n, () -> {
+				long sum = 0;
+				try {
+					LineSource reader = LineSource.open(tmp, flagMapped);
+					while (reader.next()) sum += reader.end - reader.begin;
+					reader.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+				return sum;
+			});
+		}
+	}
+
+	//  to generate payments among users like GenerateTestCase : time moves forward by
+	//  [0, density) seconds, and backward instead with two fifths chance (out of order).
+	static byte[] generate (int payments, int users, int density, long seed) {
+		Random rand = new Random(seed);
+		StringBuilder sb = new StringBuilder();
+		long epoch = 1459999999L;
+		for (int j = 0; j < payments; j++) {
+			int step = rand.nextInt(Math.max(density, 1));
+			epoch += (rand.nextInt(5) < 2) ? -step : step;
+			int a = rand.nextInt(users);
+			int t = rand.nextInt(users - 1);
+			if (t >= a) t++;
+			sb.append("{\"created_time\": \"").append(java.time.Instant.ofEpochSecond(epoch))
+				.append("\", \"target\": \"user-").append(t).append("\", \"actor\": \"user-").append(a).append("\"}\n");
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	//  EnginePool has one shard per available processor. Allocated bytes of shard threads
+	//  are not counted.
+	void bench_pool () {
+		String[] actor = new String[n];
+		String[] target = new String[n];
+		long[] epochs = new long[n];
+		int m = 0;
+		PaymentParser parser = new PaymentParser();
+		for (int j = 0; j < n; j++) {
+			if (!parser.parse(data, begin[j], end[j])) continue;
+			Payment p = parser.to_payment(data);
+			actor[m] = p.actor;
+			target[m] = p.target;
+			epochs[m++] = p.epoch;
+		}
+		final int payments = m;
+		int shards = Runtime.getRuntime().availableProcessors();
+		for (int tenants : new int[] {1, 1000}) {
+			String[] tenant = new String[payments];
+			for (int j = 0; j < payments; j++) tenant[j] = "tenant-" + Math.floorMod(actor[j].hashCode(), tenants);
+			measure("pool " + tenants + " tenants", payments, () -> {
+				java.util.concurrent.atomic.LongAdder sum = new java.util.concurrent.atomic.LongAdder();
+				EnginePool pool = new EnginePool(shards, DegreeHistogram::new, (t, median) -> sum.add((long) (2 * median)));
+				for (int j = 0; j < payments; j++) pool.accept(tenant[j], actor[j], target[j], epochs[j]);
+				pool.close();
+				return sum.sum();
+			});
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package mediandegree;
+
+//  ByteArray is a growable array of byte, as IntArray (see IntArray), for bytes of names in UserDict.
+//  copy() copies between two arrays of the same kind.
+abstract class ByteArray {
+	static ByteArray allocate (int length, boolean flagOffHeap) {
+		return flagOffHeap ? DirectByteArray.allocate(length) : new HeapByteArray(length);
+	}
+	abstract int length ();
+	//  to copy len bytes of src from begin to this array at j, and back
+	abstract void put (int j, byte[] src, int begin, int len);
+	abstract void get (int j, byte[] dst, int begin, int len);
+	abstract void copy (int j, ByteArray dst, int to, int len);
+	//  true if bytes from j are the same as b[begin, end)
+	abstract boolean same (int j, byte[] b, int begin, int end);
+}
@@ -0,0 +1,40 @@
+package mediandegree;
+
+//  CheckedMedian updates a median engine and a reference engine with the same degrees,
+//  and reports every median which is different in two engines (-verify option).
+class CheckedMedian implements MedianTracker {
+	CheckedMedian (MedianTracker engine_in, MedianTracker reference_in) {
+		engine = engine_in;
+		reference = reference_in;
+	}
+	private MedianTracker engine;
+	private MedianTracker reference;
+	
+	public void add_degree (int d) {
+		engine.add_degree(d);
+		reference.add_degree(d);
+	}
+	
+	public void delete_degree (int d) {
+		engine.delete_degree(d);
+		reference.delete_degree(d);
+	}
+	
+	public void change_degree (int d, int delta) {
+		engine.change_degree(d, delta);
+		reference.change_degree(d, delta);
+	}
+	
+	public long rebalances () {
+		return engine.rebalances();
+	}
+	
+	public double get_median () {
+		double median = engine.get_median();
+		double medianRef = reference.get_median();
+		if (Math.abs(median - medianRef) > 0.001) {
+			System.out.println("ERROR:  median=" + median + "  median of reference=" + medianRef);
+		}
+		return median;
+	}
+}
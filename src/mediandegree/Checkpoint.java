@@ -0,0 +1,170 @@
+package mediandegree;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+//  Checkpoint writes snapshots of a graph in window to a binary file (-checkpoint option), so
+//  a run can be resumed from the last snapshot (-resume) instead of from the start of input.
+//  A snapshot has only live state : users in graph, edges with epochs and max epoch, and
+//  offsets of input and output after the last line processed. Its size and time to write and
+//  to load are O(K), where K is # of edges in window, not the length of input.
+//  Degrees and the median engine are rebuilt from edges when a snapshot is loaded.
+//
+//  Format (big endian, DataOutputStream) :
+//    int MAGIC, int VERSION, boolean flagMillis, int window, int tolerance, long sampleBelow,
+//    long max_epoch, long start of graphE, long input offset, long output offset,
+//    int # of users, for each user : int length, UTF-8 bytes of name,
+//    int # of edges, for each edge : int user, int user, int max_epoch - epoch
+//  Users are numbered in the snapshot in order of first appearance in edges.
+//  Millisecond mode, window, tolerance and sample rate (as sampleBelow of in_sample()) are in the
+//  header, since edges of the snapshot are only valid for them; -resume with other options is
+//  an error (mismatch()).
+//  A snapshot is written to a temporary file, which then replaces the checkpoint file, so
+//  the checkpoint file always has a whole snapshot.
+class Checkpoint {
+	static final int MAGIC = 0x4D444350; // "MDCP"
+	static final int VERSION = 2;
+	static final long EVERY = 1000000;   // default # of input lines between snapshots
+	
+	Checkpoint (File file_in, long every_in) {
+		file = file_in;
+		every = every_in;
+	}
+	public final File file;
+	public final long every; // # of input lines between snapshots
+	public long inputOffset; // after load() : offset of the next input line
+	public long outputOffset; // after load() : bytes of output file written before the snapshot
+	
+	//  to write a snapshot of graph g. Output is flushed first, so output file has at least
+	//  outputOffset bytes when the snapshot is in the checkpoint file.
+	void save (RollingMedianDegree g, long inputOffset_in, MedianWriter fileOut) throws IOException {
+		fileOut.flush();
+		File tmp = new File(file.getPath() + ".tmp");
+		java.io.DataOutputStream out = new java.io.DataOutputStream(
+				new java.io.BufferedOutputStream(new FileOutputStream(tmp), 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeBoolean(g.flagMillis);
+		out.writeInt(g.window);
+		out.writeInt(g.tolerance);
+		out.writeLong(g.sampleBelow);
+		out.writeLong(g.max_epoch);
+		out.writeLong(g.graphE.start);
+		out.writeLong(inputOffset_in);
+		out.writeLong(fileOut.size());
+		
+		// users numbered in order of first appearance in edges
+		int[] number = new int[g.users.capacity()];
+		Arrays.fill(number, -1);
+		int n = 0;
+		long first = g.max_epoch - g.window + 1;
+		for (long t = first; t <= g.max_epoch; t++) {
+			for (int e = g.graphE.head(t); e != -1; e = g.edges.next.get(e)) {
+				int u = g.edges.u.get(e);
+				int w = g.edges.w.get(e);
+				if (number[u] < 0) number[u] = n++;
+				if (number[w] < 0) number[w] = n++;
+			}
+		}
+		int[] ids = new int[n];
+		for (int id = 0; id < number.length; id++) {
+			if (number[id] >= 0) ids[number[id]] = id;
+		}
+		out.writeInt(n);
+		for (int j = 0; j < n; j++) {
+			byte[] name = g.users.name(ids[j]).getBytes(StandardCharsets.UTF_8);
+			out.writeInt(name.length);
+			out.write(name);
+		}
+		
+		out.writeInt(g.count_edges());
+		for (long t = first; t <= g.max_epoch; t++) {
+			for (int e = g.graphE.head(t); e != -1; e = g.edges.next.get(e)) {
+				out.writeInt(number[g.edges.u.get(e)]);
+				out.writeInt(number[g.edges.w.get(e)]);
+				out.writeInt((int) (g.max_epoch - g.edges.epoch.get(e)));
+			}
+		}
+		out.close();
+		java.nio.file.Files.move(tmp.toPath(), file.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING,
+				java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	//  to check that the snapshot was saved with millisecond mode flagMillis, window and tolerance
+	//  (in epochs) and sample rate of this run. It returns the differences, or null if there is none.
+	String mismatch (boolean flagMillis, int window, int tolerance, double sample) throws IOException {
+		java.io.DataInputStream in = new java.io.DataInputStream(new FileInputStream(file));
+		try {
+			read_magic(in);
+			StringBuilder s = new StringBuilder();
+			boolean m = in.readBoolean();
+			int w = in.readInt();
+			int tol = in.readInt();
+			long below = in.readLong();
+			if (m != flagMillis) s.append(", -millis ").append(m).append(" (not ").append(flagMillis).append(')');
+			if (w != window) s.append(", window ").append(w).append(" (not ").append(window).append(')');
+			if (tol != tolerance) s.append(", tolerance ").append(tol).append(" (not ").append(tolerance).append(')');
+			if (below != RollingMedianDegree.sample_below(sample)) {
+				s.append(", -sample ").append((double) below / (1L << 32)).append(" (not ").append(sample).append(')');
+			}
+			return (s.length() == 0) ? null : "checkpoint was saved with" + s.substring(1);
+		} finally {
+			in.close();
+		}
+	}
+	
+	void read_magic (java.io.DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException("not a checkpoint file of version " + VERSION + ": " + file);
+		}
+	}
+	
+	//  to load the snapshot into a new graph with median engine t, and to set inputOffset and
+	//  outputOffset. Window, tolerance, millisecond mode and sample rate are taken from the snapshot.
+	RollingMedianDegree load (MedianTracker t) throws IOException {
+		return load(t, RollingMedianDegree.CAPACITY, false);
+	}
+	
+	//  to load the snapshot into a new graph of capacity, kept off heap if flagOffHeap is true
+	RollingMedianDegree load (MedianTracker t, int capacity, boolean flagOffHeap) throws IOException {
+		java.io.DataInputStream in = new java.io.DataInputStream(
+				new java.io.BufferedInputStream(new FileInputStream(file), 1 << 16));
+		try {
+			read_magic(in);
+			boolean flagMillis = in.readBoolean();
+			int window = in.readInt();
+			int tolerance = in.readInt();
+			RollingMedianDegree g = new RollingMedianDegree(t, capacity, window, tolerance, flagMillis, flagOffHeap);
+			g.sampleBelow = in.readLong();
+			g.flagSample = g.sampleBelow < (1L << 32);
+			g.max_epoch = in.readLong();
+			g.graphE.start = in.readLong();
+			inputOffset = in.readLong();
+			outputOffset = in.readLong();
+			
+			int n = in.readInt();
+			int[] ids = new int[n];
+			byte[] name = new byte[64];
+			for (int j = 0; j < n; j++) {
+				int len = in.readInt();
+				if (len > name.length) name = new byte[Math.max(2 * name.length, len)];
+				in.readFully(name, 0, len);
+				ids[j] = g.users.intern(name, 0, len);
+			}
+			int m = in.readInt();
+			for (int j = 0; j < m; j++) {
+				int u = in.readInt();
+				int w = in.readInt();
+				long epoch = g.max_epoch - in.readInt();
+				g.add_1_edge(ids[u], ids[w], epoch);
+			}
+			return g;
+		} finally {
+			in.close();
+		}
+	}
+}
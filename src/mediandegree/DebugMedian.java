@@ -0,0 +1,61 @@
+package mediandegree;
+
+import java.util.TreeMap;
+
+//  DebugMedian is a reliable and simpler median engine (-verify debug) to check other engines.
+//  It keeps frequency of each degree in one TreeMap and counts ranks from the smallest degree
+//  for every median, so get_median() takes O(K) time.
+class DebugMedian implements MedianTracker {
+	TreeMap<Integer, Integer> degreeDbg = new TreeMap<Integer, Integer>(); // key : degree, value : frequency
+	
+	public void add_degree (int d) {
+		if (degreeDbg.containsKey(d)) {
+			int freq = degreeDbg.get(d); // frequency of degree d
+			degreeDbg.put(d, freq + 1);
+			return;
+		}
+		degreeDbg.put(d, 1);
+	}
+	
+	public void delete_degree (int d) {
+		int freq = degreeDbg.get(d);
+		if (freq > 1) {
+			degreeDbg.put(d, freq - 1);
+		} else {
+			degreeDbg.remove(d);
+		}
+	}
+	
+	public double get_median () {
+		int n = 0;
+		
+		for (int d : degreeDbg.keySet()) {
+			n += degreeDbg.get(d);
+		}
+		if (n == 0) return -1.0;
+		int k = n / 2;
+		// System.out.print("n=" + n + " k=" + k);
+		
+		int j = 0;
+		int d1 = 0;
+		if (n % 2 == 1) {
+			k = k + 1;
+			for (int d : degreeDbg.keySet()) {
+				j += degreeDbg.get(d);
+				if (k <= j) return ((double) d);
+			}
+		}
+		for (int d : degreeDbg.keySet()) {
+			j += degreeDbg.get(d);
+			if (j == k) {
+				d1 = d;
+				continue;
+			}
+			if (k < j) {
+				if (d1 > 0) return 0.5 * ((double) (d1 + d));
+				else return ((double) d);
+			}
+		}
+		return 0.0;
+	}
+}
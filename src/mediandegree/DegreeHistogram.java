@@ -0,0 +1,73 @@
+package mediandegree;
+
+import java.util.Arrays;
+
+//  DegreeHistogram is a median engine (-median histogram). It keeps a flat frequency array
+//  indexed by degree, and two cursors at degrees of ranks (n-1)/2 and n/2 in sorted degrees.
+//  Each cursor also keeps number of degrees below it. When a degree is added or deleted,
+//  a cursor moves to an adjacent non-empty bucket at most, so an update takes O(1) time
+//  except for skipping empty buckets, and it does not allocate any object.
+//  The median is the average of degrees at two cursors.
+public class DegreeHistogram implements MedianTracker {
+	private int[] freq = new int[64]; // index : degree, value : frequency
+	private int n;                    // number of degrees
+	private int[] cursor = new int[2]; // degree at rank (n-1)/2 and n/2
+	private int[] below = new int[2];  // number of degrees < cursor
+
+	public void add_degree (int d) {
+		if (d >= freq.length) freq = Arrays.copyOf(freq, Math.max(2 * freq.length, d + 1));
+		freq[d]++;
+		n++;
+		for (int j = 0; j < 2; j++) {
+			if (d < cursor[j]) below[j]++;
+		}
+		move_cursors();
+	}
+
+	public void delete_degree (int d) {
+		freq[d]--;
+		n--;
+		for (int j = 0; j < 2; j++) {
+			if (d < cursor[j]) below[j]--;
+		}
+		move_cursors();
+	}
+
+	//  to move 1 degree from bucket d to bucket d + delta. n does not change.
+	public void change_degree (int d, int delta) {
+		int d1 = d + delta;
+		if (d1 >= freq.length) freq = Arrays.copyOf(freq, 2 * freq.length);
+		freq[d]--;
+		freq[d1]++;
+		for (int j = 0; j < 2; j++) {
+			if (d < cursor[j]) below[j]--;
+			if (d1 < cursor[j]) below[j]++;
+		}
+		move_cursors();
+	}
+
+	//  to move each cursor to the bucket which has its rank : below <= rank < below + freq
+	private void move_cursors () {
+		if (n == 0) return;
+		for (int j = 0; j < 2; j++) {
+			int rank = (j == 0) ? (n - 1) / 2 : n / 2;
+			int c = cursor[j];
+			int b = below[j];
+			while (b > rank) {
+				c--;
+				b -= freq[c];
+			}
+			while (b + freq[c] <= rank) {
+				b += freq[c];
+				c++;
+			}
+			cursor[j] = c;
+			below[j] = b;
+		}
+	}
+
+	public double get_median () {
+		if (n == 0) return -1.0; // no degree, e.g. no user in sample yet
+		return 0.5 * (cursor[0] + cursor[1]);
+	}
+}
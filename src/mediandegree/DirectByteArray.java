@@ -0,0 +1,24 @@
+package mediandegree;
+
+import java.nio.ByteBuffer;
+
+//  DirectByteArray is a ByteArray in a direct ByteBuffer outside the heap (-offheap).
+final class DirectByteArray extends ByteArray {
+	private final ByteBuffer b;
+	static ByteArray allocate (int length) {
+		return new DirectByteArray(length);
+	}
+	DirectByteArray (int length) {
+		b = OffHeap.allocate(length);
+	}
+	int length () { return b.capacity(); }
+	void put (int j, byte[] src, int begin, int len) { b.put(j, src, begin, len); }
+	void get (int j, byte[] dst, int begin, int len) { b.get(j, dst, begin, len); }
+	void copy (int j, ByteArray dst, int to, int len) { ((DirectByteArray) dst).b.put(to, b, j, len); }
+	boolean same (int j, byte[] src, int begin, int end) {
+		for (int k = begin; k < end; k++, j++) {
+			if (src[k] != b.get(j)) return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,23 @@
+package mediandegree;
+
+import java.nio.ByteBuffer;
+
+//  DirectIntArray is an IntArray in a direct ByteBuffer outside the heap (-offheap).
+final class DirectIntArray extends IntArray {
+	private ByteBuffer b;
+	static IntArray allocate (int length) {
+		return new DirectIntArray(length);
+	}
+	DirectIntArray (int length) {
+		b = OffHeap.allocate(4L * length);
+	}
+	int length () { return b.capacity() >> 2; }
+	int get (int j) { return b.getInt(j << 2); }
+	void set (int j, int v) { b.putInt(j << 2, v); }
+	void fill (int v) {
+		for (int j = 0; j < b.capacity(); j += 4) b.putInt(j, v);
+	}
+	void resize (int n) {
+		b = OffHeap.reallocate(b, 4L * n);
+	}
+}
@@ -0,0 +1,20 @@
+package mediandegree;
+
+import java.nio.ByteBuffer;
+
+//  DirectLongArray is a LongArray in a direct ByteBuffer outside the heap (-offheap).
+final class DirectLongArray extends LongArray {
+	private ByteBuffer b;
+	static LongArray allocate (int length) {
+		return new DirectLongArray(length);
+	}
+	DirectLongArray (int length) {
+		b = OffHeap.allocate(8L * length);
+	}
+	int length () { return b.capacity() >> 3; }
+	long get (int j) { return b.getLong(j << 3); }
+	void set (int j, long v) { b.putLong(j << 3, v); }
+	void resize (int n) {
+		b = OffHeap.reallocate(b, 8L * n);
+	}
+}
@@ -0,0 +1,69 @@
+package mediandegree;
+
+//  EdgePool keeps all edges in parallel primitive arrays, and an edge is an int index into them.
+//  Each edge connects two users (user ids u and w) who are involved in 1 payment, and it has
+//  epoch as payment transaction time. prev and next link edges with the same epoch in a slot of
+//  TimeWheel. Indexes of deleted edges are kept in a free list linked by next, and reused.
+//  So adding and deleting edges allocate nothing, and the GC sees only a few large arrays :
+//  24 bytes per edge here, instead of an Edge object and entries in maps of its two nodes.
+class EdgePool {
+	EdgePool (int capacity) {
+		this(capacity, false);
+	}
+
+	EdgePool (int capacity, boolean flagOffHeap) {
+		int c = Math.max(capacity, 4);
+		u = IntArray.allocate(c, flagOffHeap);
+		w = IntArray.allocate(c, flagOffHeap);
+		epoch = LongArray.allocate(c, flagOffHeap);
+		prev = IntArray.allocate(c, flagOffHeap);
+		next = IntArray.allocate(c, flagOffHeap);
+		free = -1;
+	}
+	public final IntArray u;
+	public final IntArray w;
+	public final LongArray epoch;
+	public final IntArray prev; // -1 : first edge of a slot
+	public final IntArray next; // -1 : last edge of a slot or of free list
+	private int free;  // first free index, -1 : none
+	private int used;  // indexes ever used
+	private int size;  // edges in use
+
+	int size () {
+		return size;
+	}
+
+	//  to add an edge between u_in and w_in with epoch_in. It returns index of the edge.
+	int add (int u_in, int w_in, long epoch_in) {
+		int e;
+		if (free >= 0) {
+			e = free;
+			free = next.get(e);
+		} else {
+			if (used == u.length()) grow(2 * used);
+			e = used++;
+		}
+		u.set(e, u_in);
+		w.set(e, w_in);
+		epoch.set(e, epoch_in);
+		prev.set(e, -1);
+		next.set(e, -1);
+		size++;
+		return e;
+	}
+
+	//  to put edge e into free list. It must be unlinked from TimeWheel.
+	void release (int e) {
+		next.set(e, free);
+		free = e;
+		size--;
+	}
+
+	private void grow (int capacity) {
+		u.resize(capacity);
+		w.resize(capacity);
+		epoch.resize(capacity);
+		prev.resize(capacity);
+		next.resize(capacity);
+	}
+}
@@ -0,0 +1,113 @@
+package mediandegree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+//  EnginePool keeps many independent graphs, one RollingMedianDegree for each tenant (e.g. a
+//  merchant segment or a region), and processes payments of tenants on a fixed number of shards.
+//  A tenant always goes to the same shard by hash of its key, and each shard is owned by one
+//  thread, so engines are not locked and payments of a tenant are applied in input order.
+//
+//  The calling thread puts payments into a batch for each shard, and a full batch is sent to
+//  the shard thread by SpscRing, as in Pipeline. Used batches go back on another ring, so
+//  batches are reused and nothing is allocated for each payment.
+//  An engine of a tenant is created by its first payment with small arrays (TENANT_USERS),
+//  which grow with the tenant, so thousands of small tenants cost little memory and no threads.
+public class EnginePool {
+	static final int BATCHES = 4;       // batches per shard
+	static final int TENANT_USERS = 16; // initial room for users in an engine of a new tenant
+	
+	public EnginePool (int shards_in, java.util.function.Supplier<MedianTracker> trackers_in, TenantListener listener_in) {
+		trackers = trackers_in;
+		listener = listener_in;
+		shards = new Shard[shards_in];
+		for (int i = 0; i < shards.length; i++) {
+			shards[i] = new Shard();
+			shards[i].thread = new Thread(shards[i], "shard-" + i);
+			shards[i].thread.setDaemon(true);
+			shards[i].thread.start();
+		}
+	}
+	private final java.util.function.Supplier<MedianTracker> trackers;
+	private final TenantListener listener;
+	private final Shard[] shards;
+	
+	//  one shard : engines of its tenants, owned by its thread
+	class Shard implements Runnable {
+		final SpscRing<TenantBatch> in = new SpscRing<TenantBatch>(BATCHES);
+		final SpscRing<TenantBatch> free = new SpscRing<TenantBatch>(BATCHES);
+		final HashMap<String, RollingMedianDegree> engines = new HashMap<>();
+		TenantBatch batch = new TenantBatch(); // batch being filled by the calling thread
+		Thread thread;
+		
+		Shard () {
+			for (int j = 1; j < BATCHES; j++) free.put(new TenantBatch());
+		}
+		
+		public void run () {
+			while (true) {
+				TenantBatch b = in.take();
+				for (int j = 0; j < b.count; j++) {
+					RollingMedianDegree g = engines.get(b.tenant[j]);
+					if (g == null) {
+						g = new RollingMedianDegree(trackers.get(), TENANT_USERS);
+						engines.put(b.tenant[j], g);
+					}
+					listener.median(b.tenant[j], g.accept(b.actor[j], b.target[j], b.epoch[j]));
+				}
+				if (b.eof) return;
+				Arrays.fill(b.tenant, 0, b.count, null);
+				Arrays.fill(b.actor, 0, b.count, null);
+				Arrays.fill(b.target, 0, b.count, null);
+				b.count = 0;
+				free.put(b);
+			}
+		}
+	}
+	
+	//  to add 1 payment to the graph of tenant. It must be called from one thread.
+	//  Median is given to listener later on the shard thread.
+	public void accept (String tenant, String actor, String target, long epochSeconds) {
+		int h = tenant.hashCode();
+		h ^= h >>> 16;
+		Shard s = shards[Math.floorMod(h, shards.length)];
+		TenantBatch b = s.batch;
+		b.tenant[b.count] = tenant;
+		b.actor[b.count] = actor;
+		b.target[b.count] = target;
+		b.epoch[b.count] = epochSeconds;
+		if (++b.count == TenantBatch.SIZE) send(s);
+	}
+	
+	private void send (Shard s) {
+		s.in.put(s.batch);
+		s.batch = s.free.take();
+	}
+	
+	//  to send payments in partial batches to shards
+	public void flush () {
+		for (Shard s : shards) {
+			if (s.batch.count > 0) send(s);
+		}
+	}
+	
+	//  to process all payments and stop shard threads. The pool cannot be used after this.
+	public void close () {
+		for (Shard s : shards) {
+			s.batch.eof = true;
+			s.in.put(s.batch);
+		}
+		try {
+			for (Shard s : shards) s.thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	//  # of tenants, after close()
+	public int numTenants () {
+		int n = 0;
+		for (Shard s : shards) n += s.engines.size();
+		return n;
+	}
+}
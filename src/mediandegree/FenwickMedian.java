@@ -0,0 +1,91 @@
+package mediandegree;
+
+import java.util.Arrays;
+
+//  FenwickMedian is a median engine (-median fenwick) based on order statistics.
+//  A Fenwick tree (binary indexed tree) over degrees keeps prefix sums of frequencies,
+//  so add, delete and k-th smallest degree take O(log D) time, where D is max degree.
+//  The tree is doubled and rebuilt from frequencies when a degree >= its size is added.
+public class FenwickMedian implements MedianTracker {
+	private int[] freq = new int[64]; // index : degree, value : frequency
+	private int[] tree = new int[64]; // Fenwick tree of freq, 1-based
+	private int n;                    // number of degrees
+
+	public void add_degree (int d) {
+		if (d >= tree.length) grow(d);
+		freq[d]++;
+		update(d, 1);
+		n++;
+	}
+
+	public void delete_degree (int d) {
+		freq[d]--;
+		update(d, -1);
+		n--;
+	}
+
+	public void change_degree (int d, int delta) {
+		int d1 = d + delta;
+		if (d1 >= tree.length) grow(d1);
+		freq[d]--;
+		update(d, -1);
+		freq[d1]++;
+		update(d1, 1);
+	}
+
+	public double get_median () {
+		if (n == 0) return -1.0;
+		if (n % 2 == 1) return kth(n / 2 + 1);
+		return 0.5 * (kth(n / 2) + kth(n / 2 + 1));
+	}
+
+	private void update (int d, int delta) {
+		for (int j = d; j < tree.length; j += j & (-j)) tree[j] += delta;
+	}
+
+	//  number of degrees
+	int size () {
+		return n;
+	}
+
+	//  q-quantile of degrees by nearest rank : the smallest degree d such that at least q * n degrees
+	//  are <= d, for 0 < q <= 1. quantile(0.5) is the lower median, and quantile(1) the max degree.
+	//  It takes O(log D) time, where D is max degree.
+	int quantile (double q) {
+		if (n == 0) return -1;
+		long k = (long) Math.ceil(q * n);
+		return kth((int) Math.max(1, Math.min(n, k)));
+	}
+
+	//  number of degrees <= d
+	int count_at_most (int d) {
+		int c = 0;
+		for (int j = Math.min(d, tree.length - 1); j > 0; j -= j & (-j)) c += tree[j];
+		return c;
+	}
+
+	//  k-th smallest degree (1-based k) by binary lifting on the tree
+	int kth (int k) {
+		int pos = 0;
+		for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+			int next = pos + step;
+			if (next < tree.length && tree[next] < k) {
+				pos = next;
+				k -= tree[next];
+			}
+		}
+		return pos + 1;
+	}
+
+	private void grow (int d) {
+		int size = tree.length;
+		while (size <= d) size *= 2;
+		freq = Arrays.copyOf(freq, size);
+		tree = new int[size];
+		for (int j = 1; j < size; j++) {
+			tree[j] += freq[j];
+			int parent = j + (j & (-j));
+			if (parent < size) tree[parent] += tree[j];
+		}
+	}
+}
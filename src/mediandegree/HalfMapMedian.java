@@ -0,0 +1,220 @@
+package mediandegree;
+
+import java.util.TreeMap;
+
+//  HalfMapMedian is the first median engine (-median halfmap).
+//  We maintain two half TreeMap : mapLow to store lower half degrees and
+//  mapHigh to store upper half degrees. The median will be determined by greatest degree in
+//  mapLow and smallest degree in mapHigh.
+public class HalfMapMedian implements MedianTracker {
+	TreeMap<Integer, Integer> mapLow = new TreeMap<Integer, Integer>();  // key : degree, value : frequency
+	TreeMap<Integer, Integer> mapHigh = new TreeMap<Integer, Integer>(); // key : degree, value : frequency
+	int numLow;  // number of degrees in lower half map
+	int numHigh; // number of degrees in higher half map
+	long numRebalance; // number of degrees moved by rebalance()
+
+	//
+	//  to add a degree to low or high half map.
+	//
+        //  Size of TreeMap is bounded by # of different degrees. Each payment creates <= 1 new edge.
+	//  max degree <= # of edges in graph <= K, where K is max # of payments in every window (60 sec by default).
+	//  also max degree <= # of users (nodes) <= 2K.
+	//  Size of low and high TreeMap = O(K).
+	//  This method takes O(log K) time.
+	//
+	void addDegreeToHalfMap (int degree, boolean flagLow) {
+		TreeMap<Integer, Integer> p = null; // which (low or high) half map of degree
+	    if (flagLow) { // lower half map of degree
+	        p = mapLow;
+	        ++ numLow;
+	    } else { // higher half map of degree
+	        p = mapHigh;
+	        ++ numHigh;
+	    }
+
+	    // to update frequency of this degree
+	    if (p.containsKey(degree)) { // found
+	    	int freq = p.get(degree);
+	        p.put(degree, freq + 1);
+	    } else { // not found
+	    	p.put(degree, 1);
+	    }
+	}
+	
+	//
+	//  to change a degree d to d + delta (delta is 1 or -1) in one step.
+	//  The degree stays in its half map, so numLow and numHigh do not change and no rebalance
+	//  is needed. This method takes O(log K) time.
+	//
+	public void change_degree (int d, int delta) {
+		boolean flagLow;
+		if (delta > 0) {
+			flagLow = !(numHigh > 0 && d >= mapHigh.firstKey());
+		} else {
+			flagLow = numLow > 0 && d <= mapLow.lastKey();
+		}
+		deleteDegreeFromHalfMap(d, flagLow);
+		addDegreeToHalfMap(d + delta, flagLow);
+	}
+	
+	//
+	//  to delete a degree from low or high half map.
+        //
+	//  Size of TreeMap is bounded by # of different degrees. Each payment creates <= 1 new edge.
+	//  max degree <= # of edges in graph <= K, where K is max # of payments in every window (60 sec by default).
+	//  also max degree <= # of users (nodes) <= 2K.
+	//  Size of TreeMap = O(K).
+	//  This method takes O(log K) time.
+	//
+	void deleteDegreeFromHalfMap (int degree, boolean flagLow) {
+		TreeMap<Integer, Integer> p = null; // which (low or high) half map of degree
+		if (flagLow) { // lower half map of degree
+		    p = mapLow;
+		    -- numLow;
+		} else { // higher half map of degree
+		    p = mapHigh;
+		    -- numHigh;
+		}
+		
+		int freq = p.get(degree); // frequency
+        if (freq == 1) {
+            p.remove(degree);
+        } else { // frequency of this degree is > 1
+            p.put(degree, freq - 1);
+        }
+	}
+	
+	// to pop a degree from low or high half map for rebalancing.
+	// This method takes constant time O(1).
+	//
+	int popDegreeFromHalfMap (boolean flagLow) {
+	    int key = -1;
+	    int value = 0;
+	    if (flagLow) { // lower half map of degree
+	        -- numLow;
+	        key = mapLow.lastKey(); // last of lower half
+	        value = mapLow.get(key); // frequency
+	        if (value == 1) {
+	            mapLow.remove(key);
+	        } else { // frequency of this degree is > 1 as greatest (last) degree in lower half map.
+	            mapLow.put(key, value - 1);
+	        }
+	        return key;
+	    }
+
+	    // to pop the first degree in the higher half map
+	    -- numHigh;
+	    key = mapHigh.firstKey(); // first (smallest) of higher half map of degree
+	    value = mapHigh.get(key); // frequency
+	    if (value == 1) {
+	        mapHigh.remove(key);
+	    } else { // frequency of this degree is > 1 as smallest (first) degree in higher half map
+	        mapHigh.put(key, value - 1);
+	    }
+
+	    return key;
+	}
+
+	/*
+	     To rebalance mapLow and mapHigh and keep
+	     the difference of numbers of degrees in both halves <= 1.
+	     This method takes constant time O(1).
+	*/
+	void rebalance () {
+	    if (numLow - numHigh > 1) {
+	        int degree = popDegreeFromHalfMap( true ); // to pop greatest (last) of low half map
+	        addDegreeToHalfMap( degree, false ); // to add this degree to high half map
+	        numRebalance++;
+	    } else if (numHigh - numLow > 1) {
+	        int degree = popDegreeFromHalfMap( false ); // to pop smallest (first) of high half map
+	        addDegreeToHalfMap( degree, true ); // to add this key to low half map
+	        numRebalance++;
+	    }
+	}
+	
+	public long rebalances () {
+		return numRebalance;
+	}
+
+	/* to be able to display 2 half TreeMap for debugging  */
+	void display_2_half_maps () {
+		if (numLow > 0) {
+			System.out.print("numLow=" + numLow + "  low map :");
+			for (int d : mapLow.keySet()) {
+				System.out.print(" (" + d + " " + mapLow.get(d) + ")");
+			}
+			System.out.println();
+		}
+		if (numHigh > 0) {
+			System.out.print("numHigh=" + numHigh + "  high map :");
+			for (int d : mapHigh.keySet()) {
+				System.out.print(" (" + d + " " + mapHigh.get(d) + ")");
+			}
+			System.out.println();
+		}
+	}
+	
+	/*  get_median() : to get median degree
+	 *     Since we use two half TreeMap to maintain degrees (keys) and their frequencies (values),
+	 *     the median will be determined by greatest degree in mapLow and smallest degree in mapHigh.
+	 *     This method takes constant time O(1).
+	 */
+	public double get_median () {
+		// display_2_half_maps();
+		
+		double median = -1.0;
+	    // current median after each input payment
+	    if (numLow + numHigh == 0) { // no degree, e.g. no user in sample yet
+	        return median;
+	    } else if (numLow < numHigh) { // Number of degrees is odd.
+	        median = ((double) mapHigh.firstKey()); // smallest degree in high half map
+	    } else if (numLow > numHigh) {
+	        median = ((double) mapLow.lastKey());   // greatest degree in low half map
+	    } else { // numLow == numHigh; number of degrees is even.
+	        median = 0.5 * (((double) mapLow.lastKey()) + ((double) mapHigh.firstKey()));
+	    }
+	    
+	    return median;
+	}
+	
+	//  to add a degree to two half maps
+	public void add_degree (int d) {
+		if (numLow == 0 && numHigh == 0) {
+			addDegreeToHalfMap(d, true); // to add degree d to low half map
+			return;
+		}
+		
+		if (numLow > 0) {
+			if (d <= mapLow.lastKey()) {
+				addDegreeToHalfMap(d, true); // to add degree d to low half map
+			} else {
+				addDegreeToHalfMap(d, false); // to add degree d to high half map
+			}
+		} else { // numHigh > 0
+			if (d >= mapHigh.firstKey()) {
+				addDegreeToHalfMap(d, false); // to add degree d to high half map
+			} else {
+				addDegreeToHalfMap(d, true); // to add degree d to low half map
+			}
+		}
+		rebalance();
+	}
+	
+	//  to delete a degree from two half maps
+	public void delete_degree (int d) {
+		if (numLow > 0) {
+			if (d <= mapLow.lastKey()) {
+				deleteDegreeFromHalfMap(d, true); // to delete degree d to low half map
+			} else {
+				deleteDegreeFromHalfMap(d, false); // to delete degree d to high half map
+			}
+		} else { // numHigh > 0
+			if (d >= mapHigh.firstKey()) {
+				deleteDegreeFromHalfMap(d, false); // to delete degree d to high half map
+			} else {
+				deleteDegreeFromHalfMap(d, true); // to delete degree d to low half map
+			}
+		}
+		rebalance();
+	}
+}
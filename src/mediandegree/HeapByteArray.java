@@ -0,0 +1,16 @@
+package mediandegree;
+
+import java.util.Arrays;
+
+//  HeapByteArray is a ByteArray of byte[] on the Java heap (default).
+final class HeapByteArray extends ByteArray {
+	private final byte[] a;
+	HeapByteArray (int length) {
+		a = new byte[length];
+	}
+	int length () { return a.length; }
+	void put (int j, byte[] src, int begin, int len) { System.arraycopy(src, begin, a, j, len); }
+	void get (int j, byte[] dst, int begin, int len) { System.arraycopy(a, j, dst, begin, len); }
+	void copy (int j, ByteArray dst, int to, int len) { System.arraycopy(a, j, ((HeapByteArray) dst).a, to, len); }
+	boolean same (int j, byte[] b, int begin, int end) { return Arrays.equals(a, j, j + end - begin, b, begin, end); }
+}
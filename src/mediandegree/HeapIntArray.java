@@ -0,0 +1,16 @@
+package mediandegree;
+
+import java.util.Arrays;
+
+//  HeapIntArray is an IntArray of int[] on the Java heap (default).
+final class HeapIntArray extends IntArray {
+	private int[] a;
+	HeapIntArray (int length) {
+		a = new int[length];
+	}
+	int length () { return a.length; }
+	int get (int j) { return a[j]; }
+	void set (int j, int v) { a[j] = v; }
+	void fill (int v) { Arrays.fill(a, v); }
+	void resize (int n) { a = Arrays.copyOf(a, n); }
+}
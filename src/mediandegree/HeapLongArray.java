@@ -0,0 +1,15 @@
+package mediandegree;
+
+import java.util.Arrays;
+
+//  HeapLongArray is a LongArray of long[] on the Java heap (default).
+final class HeapLongArray extends LongArray {
+	private long[] a;
+	HeapLongArray (int length) {
+		a = new long[length];
+	}
+	int length () { return a.length; }
+	long get (int j) { return a[j]; }
+	void set (int j, long v) { a[j] = v; }
+	void resize (int n) { a = Arrays.copyOf(a, n); }
+}
@@ -0,0 +1,24 @@
+package mediandegree;
+
+//  IntArray, LongArray and ByteArray are growable primitive arrays for window state : edges
+//  (EdgePool), adjacency (PairTable), users dictionary (UserDict), degrees and slots of TimeWheel.
+//  By default they wrap int[], long[] and byte[] on the Java heap. With -offheap they are direct
+//  ByteBuffers outside the heap, so the GC never copies or scans window state, and heap size does
+//  not depend on window length or number of users. OffHeap counts bytes allocated off heap.
+//
+//  Direct classes are created by their own allocate(), so they are not even loaded without -offheap,
+//  and calls on the heap classes are inlined as calls of the only implementation.
+//  resize() allocates a new buffer and copies, and a direct buffer is returned to the OS only
+//  after its ByteBuffer object is collected. So for sustained ingest, capacity should be given
+//  up front (-capacity) large enough that arrays do not grow.
+abstract class IntArray {
+	static IntArray allocate (int length, boolean flagOffHeap) {
+		return flagOffHeap ? DirectIntArray.allocate(length) : new HeapIntArray(length);
+	}
+	abstract int length ();
+	abstract int get (int j);
+	abstract void set (int j, int v);
+	abstract void fill (int v);
+	//  to change length to n, keeping the first min(n, length()) values. New values are 0.
+	abstract void resize (int n);
+}
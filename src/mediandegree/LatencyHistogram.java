@@ -0,0 +1,41 @@
+package mediandegree;
+
+//  LatencyHistogram counts latencies in buckets of powers of 2 : bucket k holds latencies in
+//  [2^k, 2^(k+1)) ns. Recording is one atomic increment, lock free from any thread, and
+//  a percentile is reported as the upper bound of its bucket, i.e. within a factor of 2.
+class LatencyHistogram {
+	private final java.util.concurrent.atomic.AtomicLongArray buckets = new java.util.concurrent.atomic.AtomicLongArray(64);
+	
+	void record (long ns) {
+		buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(ns, 1)));
+	}
+	
+	long count () {
+		long n = 0;
+		for (int k = 0; k < 64; k++) n += buckets.get(k);
+		return n;
+	}
+	
+	//  upper bound in ns of q-quantile (0 < q <= 1) of recorded latencies, 0 if none
+	long percentile (double q) {
+		long[] b = new long[64];
+		long n = 0;
+		for (int k = 0; k < 64; k++) {
+			b[k] = buckets.get(k);
+			n += b[k];
+		}
+		if (n == 0) return 0;
+		long rank = (long) Math.ceil(q * n);
+		long sum = 0;
+		for (int k = 0; k < 63; k++) {
+			sum += b[k];
+			if (sum >= rank) return (2L << k) - 1;
+		}
+		return Long.MAX_VALUE;
+	}
+	
+	public String toString () {
+		return "samples=" + count() + " p50<=" + percentile(0.5) + "ns p99<=" + percentile(0.99)
+				+ "ns p99.9<=" + percentile(0.999) + "ns max<=" + percentile(1) + "ns";
+	}
+}
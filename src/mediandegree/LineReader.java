@@ -0,0 +1,84 @@
+package mediandegree;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+//  LineReader reads raw bytes from input stream into a large buffer and finds line boundaries
+//  by scanning for '\n'.
+class LineReader extends LineSource {
+	LineReader (InputStream in_in) {
+		this(in_in, 0);
+	}
+
+	//  base_in : offset of the first byte of in, to count offset() of lines
+	LineReader (InputStream in_in, long base_in) {
+		in = in_in;
+		buf = new byte[1 << 16];
+		base = base_in;
+	}
+	private InputStream in;
+	private long base;  // offset of buf[0] in input
+	private int pos;   // first byte not yet returned as part of a line
+	private int scan;  // first byte not yet scanned for '\n'
+	private int limit; // one past last valid byte in buf
+	private boolean eof;
+
+	boolean next () throws IOException {
+		while (true) {
+			for (int k = scan; k < limit; k++) {
+				if (buf[k] == '\n') {
+					set_line(pos, k);
+					pos = k + 1;
+					scan = pos;
+					return true;
+				}
+			}
+			scan = limit;
+			if (eof) {
+				if (pos < limit) { // last line without '\n'
+					set_line(pos, limit);
+					pos = limit;
+					return true;
+				}
+				return false;
+			}
+			fill();
+		}
+	}
+
+	private void set_line (int b, int e) {
+		if (e > b && buf[e-1] == '\r') e--;
+		begin = b;
+		end = e;
+	}
+
+	//  to move partial line to front of buffer and read more bytes after it.
+	//  Buffer is doubled only when a single line does not fit into it.
+	private void fill () throws IOException {
+		if (pos > 0) {
+			base += pos;
+			System.arraycopy(buf, pos, buf, 0, limit - pos);
+			limit -= pos;
+			scan -= pos;
+			pos = 0;
+		}
+		if (limit == buf.length) {
+			buf = Arrays.copyOf(buf, 2 * buf.length);
+		}
+		int n = in.read(buf, limit, buf.length - limit);
+		if (n < 0) {
+			eof = true;
+		} else {
+			limit += n;
+		}
+	}
+
+	long offset () {
+		return base + pos;
+	}
+
+	void close () throws IOException {
+		in.close();
+	}
+}
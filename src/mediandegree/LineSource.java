@@ -0,0 +1,34 @@
+package mediandegree;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+//  LineSource gives input lines as raw bytes. The current line is buf[begin, end) with
+//  trailing '\r' removed. The buffer is reused for the whole file, so no String is created per line.
+abstract class LineSource {
+	public byte[] buf;
+	public int begin; // first byte of current line
+	public int end;   // one past last byte of current line
+
+	//  to move to the next line. It returns false at end of input.
+	abstract boolean next () throws IOException;
+
+	abstract void close () throws IOException;
+
+	//  file offset of the next line
+	abstract long offset ();
+
+	//  to open input file by -reader option : stream (default) or mmap
+	static LineSource open (File f, boolean flagMapped) throws IOException {
+		return open(f, flagMapped, 0);
+	}
+
+	//  to open input file at offset from, which should be the start of a line
+	static LineSource open (File f, boolean flagMapped, long from) throws IOException {
+		if (flagMapped) return new MappedLineReader(f, from, Long.MAX_VALUE, MappedLineReader.SEGMENT);
+		FileInputStream in = new FileInputStream(f);
+		in.getChannel().position(from);
+		return new LineReader(in, from);
+	}
+}
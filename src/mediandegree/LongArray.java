@@ -0,0 +1,12 @@
+package mediandegree;
+
+//  LongArray is a growable array of long, as IntArray (see IntArray).
+abstract class LongArray {
+	static LongArray allocate (int length, boolean flagOffHeap) {
+		return flagOffHeap ? DirectLongArray.allocate(length) : new HeapLongArray(length);
+	}
+	abstract int length ();
+	abstract long get (int j);
+	abstract void set (int j, long v);
+	abstract void resize (int n);
+}
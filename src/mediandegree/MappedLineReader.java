@@ -0,0 +1,97 @@
+package mediandegree;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+//  MappedLineReader memory-maps input file in large segments by FileChannel.map, and finds
+//  line boundaries by scanning bytes of the mapped buffer. Each line is copied by one bulk get
+//  into buf for the parser, so file data is not copied through a stream buffer and
+//  no String is created. A segment is mapped again from the start of a line which crosses
+//  its end, and a segment grows only when a single line is longer than it.
+class MappedLineReader extends LineSource {
+	static final long SEGMENT = 1L << 28; // 256 MB
+	
+	MappedLineReader (File f, long segment_in) throws IOException {
+		this(f, 0, f.length(), segment_in);
+	}
+	
+	//  to read lines in file range [from, to). from should be the start of a line.
+	MappedLineReader (File f, long from, long to, long segment_in) throws IOException {
+		channel = new java.io.RandomAccessFile(f, "r").getChannel();
+		size = Math.min(to, channel.size());
+		segment = segment_in;
+		buf = new byte[256];
+		map(Math.min(from, size));
+	}
+	private FileChannel channel;
+	private long size;     // end of file range
+	private long segment;  // max bytes of a mapped segment
+	private long base;     // file offset of mapped segment
+	private java.nio.MappedByteBuffer mapped;
+	private int pos;       // first byte in segment not yet returned as part of a line
+	
+	private void map (long offset) throws IOException {
+		base = offset;
+		mapped = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(segment, size - base));
+		mapped.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		pos = 0;
+	}
+	
+	//  file offset of the next line
+	long offset () {
+		return base + pos;
+	}
+	
+	boolean next () throws IOException {
+		while (true) {
+			int limit = mapped.limit();
+			int k = find_newline(pos, limit);
+			if (k < limit) {
+				set_line(pos, k);
+				pos = k + 1;
+				return true;
+			}
+			if (base + limit == size) {
+				if (pos < limit) { // last line without '\n'
+					set_line(pos, limit);
+					pos = limit;
+					return true;
+				}
+				return false;
+			}
+			if (pos == 0) segment *= 2; // a line longer than segment
+			map(base + pos);
+		}
+	}
+	
+	//  to find the first '\n' in mapped[k, limit), or limit if not found.
+	//  8 bytes are checked at a time : a byte of x is zero iff the byte was '\n', and
+	//  (x - 0x01..01) & ~x & 0x80..80 marks the lowest zero byte of x (little endian order).
+	private int find_newline (int k, int limit) {
+		for (; k + 8 <= limit; k += 8) {
+			long x = mapped.getLong(k) ^ 0x0A0A0A0A0A0A0A0AL;
+			long found = (x - 0x0101010101010101L) & ~x & 0x8080808080808080L;
+			if (found != 0) return k + (Long.numberOfTrailingZeros(found) >>> 3);
+		}
+		for (; k < limit; k++) {
+			if (mapped.get(k) == '\n') return k;
+		}
+		return limit;
+	}
+	
+	private void set_line (int b, int e) {
+		int len = e - b;
+		if (len > buf.length) buf = new byte[Math.max(2 * buf.length, len)];
+		mapped.position(b);
+		mapped.get(buf, 0, len);
+		if (len > 0 && buf[len-1] == '\r') len--;
+		begin = 0;
+		end = len;
+	}
+	
+	void close () throws IOException {
+		mapped = null;
+		channel.close();
+	}
+}
@@ -0,0 +1,21 @@
+package mediandegree;
+
+//  MedianTracker is a median engine. It maintains degrees of all nodes in graph and
+//  rolling median of them. Nodes with degree 0 are not in the engine.
+//  Engines are selected by -median option, and -verify option checks one engine by another.
+public interface MedianTracker {
+	void add_degree (int d);
+	void delete_degree (int d);
+	double get_median ();
+
+	//  to change a degree d to d + delta, where delta is 1 or -1
+	default void change_degree (int d, int delta) {
+		delete_degree(d);
+		add_degree(d + delta);
+	}
+
+	//  number of times a degree moved between two halves of the engine, for Metrics
+	default long rebalances () {
+		return 0;
+	}
+}
@@ -0,0 +1,150 @@
+package mediandegree;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+
+//  MedianWriter writes medians to output file with two decimals, as DecimalFormat("#0.00").
+//  A median of degrees is always an integer or an integer plus 0.5, so it is written from
+//  2 * median as digits directly into a large byte buffer, without any String or formatter.
+//  The buffer is written to FileChannel when it is full.
+class MedianWriter {
+	static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+	
+	MedianWriter (File f) throws IOException {
+		this(new FileOutputStream(f).getChannel());
+	}
+	
+	//  to write medians after the first offset bytes of file f, and to drop the bytes after them,
+	//  e.g. to resume from a checkpoint
+	MedianWriter (File f, long offset) throws IOException {
+		this(new java.io.RandomAccessFile(f, "rw").getChannel().truncate(offset).position(offset));
+		written = offset;
+	}
+	
+	//  to write medians to any channel, e.g. to a ByteArrayOutputStream by Channels.newChannel
+	MedianWriter (WritableByteChannel channel_in) {
+		channel = channel_in;
+		buf = new byte[1 << 20];
+	}
+	private WritableByteChannel channel;
+	private byte[] buf;
+	private int pos;
+	private long written; // bytes written to channel
+	private NumberFormat fm; // only for a median which is not a multiple of 0.5
+
+	void write (double median) throws IOException {
+		write_number(median);
+		end_line();
+	}
+
+	//  to write a median or a quantile in the format of medians, without end of line
+	void write_number (double median) throws IOException {
+		if (pos + 32 > buf.length) flush();
+		long twice = (long) (2 * median);
+		if (twice != 2 * median) {
+			if (fm == null) fm = new DecimalFormat("#0.00");
+			byte[] b = fm.format(median).getBytes(StandardCharsets.US_ASCII);
+			System.arraycopy(b, 0, buf, pos, b.length);
+			pos += b.length;
+		} else {
+			if (twice < 0) {
+				buf[pos++] = '-';
+				twice = -twice;
+			}
+			pos = write_digits(twice / 2);
+			buf[pos++] = '.';
+			buf[pos++] = (twice % 2 == 0) ? (byte) '0' : (byte) '5';
+			buf[pos++] = '0';
+		}
+	}
+
+	//  to write decimal digits of v >= 0, e.g. a line number, without end of line
+	void write_long (long v) throws IOException {
+		if (pos + 20 > buf.length) flush();
+		pos = write_digits(v);
+	}
+
+	//  to write ASCII text without end of line
+	void write_text (String text) throws IOException {
+		if (pos + text.length() > buf.length) flush();
+		for (int j = 0; j < text.length(); j++) buf[pos++] = (byte) text.charAt(j);
+	}
+
+	//  to write a column " v" after a median
+	void write_column (double v) throws IOException {
+		if (pos + 1 > buf.length) flush();
+		buf[pos++] = ' ';
+		write_number(v);
+	}
+
+	//  to write a user as "name:degree" in a column of users, which starts with ' ' before the first
+	//  user and has ',' between users. Without dictionary (PaymentLog), the user id is written as name.
+	void write_user (UserDict users, int id, int degree, boolean flagFirst) throws IOException {
+		int len = (users == null) ? 10 : users.name_length(id);
+		if (pos + len + 16 > buf.length) flush();
+		if (len + 16 > buf.length) buf = new byte[len + 16];
+		buf[pos++] = flagFirst ? (byte) ' ' : (byte) ',';
+		if (users == null) {
+			pos = write_digits(id);
+		} else {
+			users.copy_name(id, buf, pos);
+			pos += len;
+		}
+		buf[pos++] = ':';
+		pos = write_digits(degree);
+	}
+
+	//  to write an empty column of users
+	void write_no_user () throws IOException {
+		if (pos + 2 > buf.length) flush();
+		buf[pos++] = ' ';
+		buf[pos++] = '-';
+	}
+
+	void end_line () throws IOException {
+		if (pos + NEWLINE.length > buf.length) flush();
+		for (byte c : NEWLINE) buf[pos++] = c;
+	}
+
+	//  to write decimal digits of v >= 0 at pos. It returns position after the digits.
+	private int write_digits (long v) {
+		int len = 1;
+		for (long x = v / 10; x > 0; x /= 10) len++;
+		for (int j = pos + len - 1; j >= pos; j--) {
+			buf[j] = (byte) ('0' + v % 10);
+			v /= 10;
+		}
+		return pos + len;
+	}
+
+	//  to write lines of medians which are already formatted, e.g. output of another MedianWriter
+	void write_bytes (byte[] b, int off, int len) throws IOException {
+		flush();
+		ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+		while (bb.hasRemaining()) channel.write(bb);
+		written += len;
+	}
+
+	void flush () throws IOException {
+		ByteBuffer b = ByteBuffer.wrap(buf, 0, pos);
+		while (b.hasRemaining()) channel.write(b);
+		written += pos;
+		pos = 0;
+	}
+
+	//  # of bytes of output so far
+	long size () {
+		return written + pos;
+	}
+
+	void close () throws IOException {
+		flush();
+		channel.close();
+	}
+}
@@ -0,0 +1,54 @@
+package mediandegree;
+
+//  Metrics counts what graphs do, for monitoring a long run (-metrics option) by JMX.
+//  Counters are LongAdders, striped across threads, so graphs on worker threads of -parallel
+//  can share one Metrics without contention. Gauges (users and edges in window) are read from
+//  the graph given to watch(). Latencies of parse, graph update and output are recorded in
+//  LatencyHistograms for 1 of every SAMPLE lines, so System.nanoTime() is not called for each line.
+class Metrics {
+	static final int SAMPLE = 64; // power of 2
+	static final String NAME = "median_degree:type=Metrics";
+	
+	final java.util.concurrent.atomic.LongAdder accepted = new java.util.concurrent.atomic.LongAdder(); // added to graph
+	final java.util.concurrent.atomic.LongAdder late = new java.util.concurrent.atomic.LongAdder();     // older than max epoch - tolerance
+	final java.util.concurrent.atomic.LongAdder stale = new java.util.concurrent.atomic.LongAdder();    // not newer than existing edge
+	final java.util.concurrent.atomic.LongAdder evicted = new java.util.concurrent.atomic.LongAdder();  // edges out of window
+	final LatencyHistogram parse = new LatencyHistogram();
+	final LatencyHistogram update = new LatencyHistogram();
+	final LatencyHistogram output = new LatencyHistogram();
+	private volatile RollingMedianDegree graph;
+	
+	//  to report gauges of g, e.g. the graph of a sequential run or of the latest chunk of -parallel
+	void watch (RollingMedianDegree g) {
+		graph = g;
+	}
+	
+	//  gauges are read while another thread updates the graph, so they are only approximate
+	long users () {
+		RollingMedianDegree g = graph;
+		return (g == null || g.users == null) ? 0 : g.users.size();
+	}
+	
+	long edges () {
+		RollingMedianDegree g = graph;
+		return (g == null) ? 0 : g.graphE.size();
+	}
+	
+	long rebalances () {
+		RollingMedianDegree g = graph;
+		return (g == null) ? 0 : g.tracker.rebalances();
+	}
+	
+	//  to register an MBean of this Metrics in the platform MBean server, e.g. for jconsole
+	void register () throws javax.management.JMException {
+		java.lang.management.ManagementFactory.getPlatformMBeanServer().registerMBean(
+				new MetricsMBean(this), new javax.management.ObjectName(NAME));
+	}
+	
+	public String toString () {
+		return "accepted=" + accepted.sum() + " late=" + late.sum() + " stale=" + stale.sum()
+				+ " evicted=" + evicted.sum() + " users=" + users() + " edges=" + edges()
+				+ " rebalances=" + rebalances() + "\n" + "parse " + parse + "\n" + "update " + update
+				+ "\n" + "output " + output;
+	}
+}
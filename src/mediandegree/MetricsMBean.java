@@ -0,0 +1,72 @@
+package mediandegree;
+
+//  MetricsMBean shows Metrics as read-only long attributes of one MBean. It is a DynamicMBean,
+//  so attributes are listed in one table instead of getter methods of a standard MBean interface.
+class MetricsMBean implements javax.management.DynamicMBean {
+	static final String[] ATTRIBUTES = {
+		"PaymentsAccepted", "PaymentsLate", "PaymentsStale", "EdgesEvicted", "Users", "Edges", "Rebalances",
+		"ParseSamples", "ParseP50Nanos", "ParseP99Nanos", "ParseMaxNanos",
+		"UpdateSamples", "UpdateP50Nanos", "UpdateP99Nanos", "UpdateMaxNanos",
+		"OutputSamples", "OutputP50Nanos", "OutputP99Nanos", "OutputMaxNanos",
+	};
+	
+	MetricsMBean (Metrics metrics_in) {
+		metrics = metrics_in;
+	}
+	private final Metrics metrics;
+	
+	public Object getAttribute (String name) throws javax.management.AttributeNotFoundException {
+		switch (name) {
+			case "PaymentsAccepted": return metrics.accepted.sum();
+			case "PaymentsLate":     return metrics.late.sum();
+			case "PaymentsStale":    return metrics.stale.sum();
+			case "EdgesEvicted":     return metrics.evicted.sum();
+			case "Users":            return metrics.users();
+			case "Edges":            return metrics.edges();
+			case "Rebalances":       return metrics.rebalances();
+		}
+		LatencyHistogram h = name.startsWith("Parse") ? metrics.parse
+				: name.startsWith("Update") ? metrics.update
+				: name.startsWith("Output") ? metrics.output : null;
+		if (h != null) {
+			if (name.endsWith("Samples")) return h.count();
+			if (name.endsWith("P50Nanos")) return h.percentile(0.5);
+			if (name.endsWith("P99Nanos")) return h.percentile(0.99);
+			if (name.endsWith("MaxNanos")) return h.percentile(1);
+		}
+		throw new javax.management.AttributeNotFoundException(name);
+	}
+	
+	public javax.management.AttributeList getAttributes (String[] names) {
+		javax.management.AttributeList list = new javax.management.AttributeList();
+		for (String name : names) {
+			try {
+				list.add(new javax.management.Attribute(name, getAttribute(name)));
+			} catch (javax.management.AttributeNotFoundException e) {
+				// an unknown name is left out of the list, as getAttributes() is specified
+			}
+		}
+		return list;
+	}
+	
+	public void setAttribute (javax.management.Attribute a) throws javax.management.AttributeNotFoundException {
+		throw new javax.management.AttributeNotFoundException("read-only: " + a.getName());
+	}
+	
+	public javax.management.AttributeList setAttributes (javax.management.AttributeList list) {
+		return new javax.management.AttributeList();
+	}
+	
+	public Object invoke (String action, Object[] params, String[] signature) throws javax.management.ReflectionException {
+		throw new javax.management.ReflectionException(new NoSuchMethodException(action));
+	}
+	
+	public javax.management.MBeanInfo getMBeanInfo () {
+		javax.management.MBeanAttributeInfo[] infos = new javax.management.MBeanAttributeInfo[ATTRIBUTES.length];
+		for (int j = 0; j < ATTRIBUTES.length; j++) {
+			infos[j] = new javax.management.MBeanAttributeInfo(ATTRIBUTES[j], "long", ATTRIBUTES[j], true, false, false);
+		}
+		return new javax.management.MBeanInfo(MetricsMBean.class.getName(), "metrics of median_degree", infos,
+				null, null, null);
+	}
+}
@@ -0,0 +1,28 @@
+package mediandegree;
+
+import java.nio.ByteBuffer;
+
+//  OffHeap allocates direct buffers in native byte order and counts their bytes.
+//  Engines on different threads (-parallel) allocate at the same time, so the count is atomic.
+class OffHeap {
+	private static final java.util.concurrent.atomic.AtomicLong bytes = new java.util.concurrent.atomic.AtomicLong();
+
+	//  bytes allocated off heap so far, including buffers replaced by larger ones
+	static long bytes () {
+		return bytes.get();
+	}
+
+	static ByteBuffer allocate (long size) {
+		if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("off-heap array too large: " + size + " bytes");
+		ByteBuffer b = ByteBuffer.allocateDirect((int) size).order(java.nio.ByteOrder.nativeOrder());
+		bytes.addAndGet(size);
+		return b;
+	}
+
+	//  to allocate a buffer of size bytes with the first bytes of b
+	static ByteBuffer reallocate (ByteBuffer b, long size) {
+		ByteBuffer a = allocate(size);
+		a.put(0, b, 0, (int) Math.min(size, b.capacity()));
+		return a;
+	}
+}
@@ -0,0 +1,94 @@
+package mediandegree;
+
+//  PairTable is the adjacency of graph : an open addressing hash map from a pair of user ids
+//  to the edge between them. One global table replaces a neighbor map in every node.
+//  (u, w) and (w, u) are the same key, min id in high 32 bits and max id in low 32 bits.
+//  It uses linear probing on two parallel arrays and backward shift deletion,
+//  so there is no entry object and no boxed key.
+class PairTable {
+	private LongArray keys;
+	private IntArray vals;   // -1 : empty slot, otherwise edge index
+	private int size;
+	private int mask;
+	private final boolean flagOffHeap;
+
+	PairTable (int capacity) {
+		this(capacity, false);
+	}
+
+	PairTable (int capacity, boolean flagOffHeap_in) {
+		flagOffHeap = flagOffHeap_in;
+		int c = Integer.highestOneBit(Math.max(2 * capacity - 1, 1)) * 2;
+		keys = LongArray.allocate(c, flagOffHeap);
+		vals = IntArray.allocate(c, flagOffHeap);
+		vals.fill(-1);
+		mask = c - 1;
+	}
+
+	int size () {
+		return size;
+	}
+
+	static long key (int u, int w) {
+		return (u < w) ? ((long) u << 32) | w : ((long) w << 32) | u;
+	}
+
+	static int hash (long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	//  edge between u and w, or -1 if they are not connected
+	int get (int u, int w) {
+		long key = key(u, w);
+		for (int j = hash(key) & mask; vals.get(j) != -1; j = (j + 1) & mask) {
+			if (keys.get(j) == key) return vals.get(j);
+		}
+		return -1;
+	}
+
+	//  to put edge e between u and w, who are not connected
+	void put (int u, int w, int e) {
+		if (2 * (size + 1) > vals.length()) resize(2 * vals.length());
+		long key = key(u, w);
+		int j = hash(key) & mask;
+		while (vals.get(j) != -1) j = (j + 1) & mask;
+		keys.set(j, key);
+		vals.set(j, e);
+		size++;
+	}
+
+	void remove (int u, int w) {
+		long key = key(u, w);
+		int j = hash(key) & mask;
+		while (vals.get(j) != -1 && keys.get(j) != key) j = (j + 1) & mask;
+		if (vals.get(j) == -1) return;
+		// backward shift : to move later entries of the same probe sequence into the hole
+		for (int k = (j + 1) & mask; vals.get(k) != -1; k = (k + 1) & mask) {
+			int h = hash(keys.get(k)) & mask;
+			if ((k > j && (h <= j || h > k)) || (k < j && h <= j && h > k)) {
+				keys.set(j, keys.get(k));
+				vals.set(j, vals.get(k));
+				j = k;
+			}
+		}
+		vals.set(j, -1);
+		size--;
+	}
+
+	private void resize (int capacity) {
+		LongArray oldKeys = keys;
+		IntArray oldVals = vals;
+		keys = LongArray.allocate(capacity, flagOffHeap);
+		vals = IntArray.allocate(capacity, flagOffHeap);
+		vals.fill(-1);
+		mask = capacity - 1;
+		for (int j = 0; j < oldVals.length(); j++) {
+			if (oldVals.get(j) == -1) continue;
+			int k = hash(oldKeys.get(j)) & mask;
+			while (vals.get(k) != -1) k = (k + 1) & mask;
+			keys.set(k, oldKeys.get(j));
+			vals.set(k, oldVals.get(j));
+		}
+	}
+}
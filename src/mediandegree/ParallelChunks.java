@@ -0,0 +1,162 @@
+package mediandegree;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//  ParallelChunks is the batch mode for large input files (-parallel W).
+//  Input file is split at line starts into chunks, and W worker threads process chunks
+//  independently, each with its own RollingMedianDegree :
+//    1. warm-up : lines before the chunk which may be in window at the chunk start
+//       are replayed without output, to rebuild graph as in a sequential run.
+//    2. lines of the chunk are processed, and medians are written into memory.
+//  The calling thread writes outputs of chunks to output file in input order.
+//
+//  Warm-up starts after the last line (searched backward from the chunk start) whose epoch is
+//  older than M - (window - 1) - skew, where M is max epoch of lines after it. If no payment comes more
+//  than skew seconds after max epoch so far (-skew option), no line before it can be in window.
+//  To keep output the same as a sequential run even if skew is too small, the graph after
+//  warm-up of chunk i is checked against the graph at the end of chunk i - 1 by fingerprint,
+//  and when they differ, chunk i is processed again on graph of chunk i - 1.
+class ParallelChunks {
+	static final int CHUNKS_PER_WORKER = 4;
+	static final long SCAN_STEP = 1 << 20; // bytes scanned backward for warm-up, doubled as needed
+	
+	ParallelChunks (File file_in, int workers_in, long skew_in, java.util.function.Supplier<RollingMedianDegree> graphs_in) {
+		file = file_in;
+		workers = workers_in;
+		skew = skew_in;
+		graphs = graphs_in;
+	}
+	private final File file;
+	private final int workers;
+	private final long skew;  // max seconds of a payment later than max epoch so far
+	private final java.util.function.Supplier<RollingMedianDegree> graphs; // new empty graphs
+	private long[] bounds;    // chunk i is file range [bounds[i], bounds[i+1])
+	public int reruns;        // chunks processed again after a wrong warm-up
+	
+	//  result of one chunk
+	static class Chunk {
+		RollingMedianDegree graph;
+		long start, end; // fingerprints of graph after warm-up and at the end of chunk
+		java.io.ByteArrayOutputStream output;
+	}
+	
+	void run (MedianWriter fileOut) throws IOException {
+		split(workers * CHUNKS_PER_WORKER);
+		int n = bounds.length - 1;
+		java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(workers, r -> {
+			Thread t = new Thread(r, "chunk");
+			t.setDaemon(true);
+			return t;
+		});
+		List<java.util.concurrent.Future<Chunk>> results = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			final int k = i;
+			results.add(pool.submit(() -> run_chunk(k)));
+		}
+		
+		RollingMedianDegree prev = null;
+		long prevEnd = 0;
+		try {
+			for (int i = 0; i < n; i++) {
+				Chunk c = results.get(i).get();
+				results.set(i, null);
+				if (i > 0 && c.start != prevEnd) {
+					// warm-up did not rebuild graph at the chunk start
+					reruns++;
+					LineSource reader = new MappedLineReader(file, bounds[i], bounds[i+1], MappedLineReader.SEGMENT);
+					median_degree.run_lines(prev, reader, fileOut);
+					reader.close();
+					c.graph = prev;
+					c.end = prev.fingerprint();
+				} else {
+					fileOut.write_bytes(c.output.toByteArray(), 0, c.output.size());
+				}
+				prev = c.graph;
+				prevEnd = c.end;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (java.util.concurrent.ExecutionException e) {
+			if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+	
+	//  to split input file into about n chunks of equal size at line starts. Chunks may be empty.
+	private void split (int n) throws IOException {
+		long size = file.length();
+		bounds = new long[n + 1];
+		bounds[n] = size;
+		for (int i = 1; i < n; i++) {
+			long b = size * i / n;
+			if (b > 0) { // to move b after the end of line which has byte b - 1
+				MappedLineReader reader = new MappedLineReader(file, b - 1, size, MappedLineReader.SEGMENT);
+				reader.next();
+				b = reader.offset();
+				reader.close();
+			}
+			bounds[i] = Math.max(b, bounds[i-1]);
+		}
+	}
+	
+	private Chunk run_chunk (int i) throws IOException {
+		Chunk c = new Chunk();
+		c.graph = graphs.get();
+		if (i > 0) {
+			long from = warm_up_start(bounds[i], c.graph);
+			LineSource warm = new MappedLineReader(file, from, bounds[i], MappedLineReader.SEGMENT);
+			median_degree.run_lines(c.graph, warm, null);
+			warm.close();
+		}
+		c.start = c.graph.fingerprint();
+		
+		c.output = new java.io.ByteArrayOutputStream();
+		MedianWriter out = new MedianWriter(java.nio.channels.Channels.newChannel(c.output));
+		LineSource reader = new MappedLineReader(file, bounds[i], bounds[i+1], MappedLineReader.SEGMENT);
+		median_degree.run_lines(c.graph, reader, out);
+		reader.close();
+		out.flush();
+		c.end = c.graph.fingerprint();
+		return c;
+	}
+	
+	//  to find start of warm-up for a chunk starting at from, for window of graph g.
+	//  Lines before from are scanned backward in ranges of SCAN_STEP, 2 * SCAN_STEP, ... bytes.
+	long warm_up_start (long from, RollingMedianDegree g) throws IOException {
+		PaymentParser parser = new PaymentParser(g.flagMillis);
+		long late = (g.window - 1) + skew * (g.flagMillis ? 1000 : 1);
+		long[] epochs = new long[1024];
+		long[] ends = new long[1024]; // file offset after each line
+		for (long step = SCAN_STEP; ; step *= 2) {
+			long p = Math.max(0, from - step);
+			MappedLineReader reader = new MappedLineReader(file, p, from, MappedLineReader.SEGMENT);
+			if (p > 0) reader.next(); // to skip a line which may start before p
+			int n = 0;
+			while (reader.next()) {
+				if (!parser.parse(reader.buf, reader.begin, reader.end)) continue;
+				if (n == epochs.length) {
+					epochs = Arrays.copyOf(epochs, 2 * n);
+					ends = Arrays.copyOf(ends, 2 * n);
+				}
+				epochs[n] = parser.epoch;
+				ends[n] = reader.offset();
+				n++;
+			}
+			reader.close();
+			
+			long max = Long.MIN_VALUE; // max epoch of lines after line j
+			for (int j = n - 1; j >= 0; j--) {
+				if (max != Long.MIN_VALUE && epochs[j] < max - late) return ends[j];
+				if (max < epochs[j]) max = epochs[j];
+			}
+			if (p == 0) return 0;
+		}
+	}
+}
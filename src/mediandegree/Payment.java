@@ -0,0 +1,25 @@
+package mediandegree;
+
+//  A payment object contains actor, target and epoch (transaction time) from input JSON.
+//  Timestamp is in UTC ('Z'), so epoch is decoded by TimestampDecoder without time zone.
+class Payment {
+	static TimestampDecoder decoder = new TimestampDecoder();
+	
+	Payment(String timestamp_in, String actor_in, String target_in) {
+		this(timestamp_in, decoder.decode(timestamp_in), actor_in, target_in);
+	}
+	Payment(String timestamp_in, long epoch_in, String actor_in, String target_in) {
+		timestamp = timestamp_in;
+		epoch = epoch_in;
+		if (epoch == TimestampDecoder.INVALID) {
+			System.out.println("ERROR: bad timestamp " + timestamp);
+			epoch = 0;
+		}
+		actor = actor_in;
+		target = target_in;
+	}
+	public String timestamp;
+	public long epoch;
+	public String actor;
+	public String target;
+}
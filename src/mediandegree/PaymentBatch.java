@@ -0,0 +1,49 @@
+package mediandegree;
+
+import java.util.Arrays;
+
+//  PaymentBatch holds lines copied from input, and compact payment records decoded from them.
+//  Batches are reused : reader -> parser thread -> consumer -> reader.
+class PaymentBatch {
+	static final int LINES = 4096;
+	
+	byte[] data = new byte[LINES * 96];
+	int size;                    // bytes in data
+	int count;                   // lines in batch
+	boolean eof;                 // no more batch after this one
+	int[] lineBegin = new int[LINES], lineEnd = new int[LINES];
+	
+	// compact records filled by parser thread, index : line in batch
+	boolean[] valid = new boolean[LINES];    // false : line is not a payment, no output
+	boolean[] self = new boolean[LINES];     // actor is the same as target
+	long[] epoch = new long[LINES];
+	int[] actorBegin = new int[LINES], actorEnd = new int[LINES], actorHash = new int[LINES];
+	int[] targetBegin = new int[LINES], targetEnd = new int[LINES], targetHash = new int[LINES];
+
+	//  to copy a line into batch
+	void add_line (byte[] b, int begin, int end) {
+		int len = end - begin;
+		if (size + len > data.length) data = Arrays.copyOf(data, Math.max(2 * data.length, size + len));
+		System.arraycopy(b, begin, data, size, len);
+		lineBegin[count] = size;
+		lineEnd[count] = size + len;
+		size += len;
+		count++;
+	}
+
+	//  to decode all lines into compact records, in a parser thread
+	void parse (PaymentParser parser) {
+		for (int j = 0; j < count; j++) {
+			valid[j] = parser.parse(data, lineBegin[j], lineEnd[j]);
+			if (!valid[j]) continue;
+			epoch[j] = parser.epoch;
+			self[j] = parser.self_payment(data);
+			actorBegin[j] = parser.actorBegin;
+			actorEnd[j] = parser.actorEnd;
+			actorHash[j] = UserDict.hash(data, parser.actorBegin, parser.actorEnd);
+			targetBegin[j] = parser.targetBegin;
+			targetEnd[j] = parser.targetEnd;
+			targetHash[j] = UserDict.hash(data, parser.targetBegin, parser.targetEnd);
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package mediandegree;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+//  PaymentLog is a binary input format of payments, made once from JSON lines by convert()
+//  (-convert option) and replayed by run() without parsing text or looking up names.
+//  Users are dictionary-encoded to ids 0, 1, 2, ... in order of first appearance, and each
+//  payment is a fixed-width record of 12 bytes, instead of about 90 bytes of JSON text :
+//    int actor id, int target id, int epoch - epoch of the previous record
+//  The first epoch is in the header. An epoch gap which does not fit in int is written as an
+//  extra record {-1, high 32 bits, low 32 bits} of the new epoch, which has no median.
+//  Lines which are not valid payments are not in the log, as they have no median.
+//
+//  Layout (big endian) :
+//    header : int MAGIC, int VERSION, boolean flagMillis, long first epoch, long # of records,
+//             long offset of dictionary
+//    records
+//    dictionary : int # of users, for each user id : int length, UTF-8 bytes of name
+//  The dictionary maps ids of the log back to names. Replay reads it only for sampling of users
+//  (-sample hashes names) and top users (-topk writes names), so the same users are in sample
+//  and the same names are written as for JSON input.
+class PaymentLog {
+	static final int MAGIC = 0x4D44504C; // "MDPL"
+	static final int VERSION = 1;
+	static final int HEADER = 4 + 4 + 1 + 8 + 8 + 8;
+	static final int RECORD = 12;
+	static final int BUFFER = RECORD << 16; // records read or written at a time
+	
+	PaymentLog (File file_in) throws IOException {
+		file = file_in;
+		java.io.DataInputStream in = new java.io.DataInputStream(new FileInputStream(file));
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("not a payment log: " + file);
+			flagMillis = in.readBoolean();
+			firstEpoch = in.readLong();
+			records = in.readLong();
+			dictOffset = in.readLong();
+		} finally {
+			in.close();
+		}
+	}
+	public final File file;
+	public final boolean flagMillis; // epochs in milliseconds
+	public final long firstEpoch;
+	public final long records;       // # of records, including epoch records
+	public final long dictOffset;
+	
+	//  to check if file begins with MAGIC, i.e. it is a payment log and not JSON lines
+	static boolean is_log (File f) throws IOException {
+		if (f.length() < HEADER) return false;
+		java.io.DataInputStream in = new java.io.DataInputStream(new FileInputStream(f));
+		try {
+			return in.readInt() == MAGIC;
+		} finally {
+			in.close();
+		}
+	}
+	
+	//
+	//  to replay all payments of the log on graph g, and write 1 median for each payment.
+	//  Ids of the log are used as user ids of g directly. g has no users dictionary, unless it
+	//  needs names for sampling or top users, when the dictionary of the log is loaded with the
+	//  same ids, and kept for all of the log instead of only users in window.
+	//  This method takes O(N) time for records plus graph updates, without any hash lookup
+	//  of names.
+	//
+	void run (RollingMedianDegree g, MedianWriter fileOut) throws IOException {
+		g.users = (g.flagSample || g.numTop > 0) ? read_dictionary() : null;
+		g.flagKeepIds = true;
+		FileChannel channel = new java.io.RandomAccessFile(file, "r").getChannel();
+		ByteBuffer buf = ByteBuffer.allocate(BUFFER);
+		long pos = HEADER;
+		long end = HEADER + records * RECORD;
+		long epoch = firstEpoch;
+		while (pos < end) {
+			buf.clear();
+			buf.limit((int) Math.min(BUFFER, end - pos));
+			while (buf.hasRemaining()) {
+				if (channel.read(buf, pos + buf.position()) < 0) throw new IOException("payment log is cut: " + file);
+			}
+			pos += buf.limit();
+			buf.flip();
+			while (buf.hasRemaining()) {
+				int actor = buf.getInt();
+				int target = buf.getInt();
+				int delta = buf.getInt();
+				if (actor < 0) { // epoch record
+					epoch = ((long) target << 32) | (delta & 0xFFFFFFFFL);
+					continue;
+				}
+				epoch += delta;
+				if (g.advance_window(epoch) && actor != target) {
+					g.add_payment(actor, target, epoch);
+				}
+				g.output_median(fileOut);
+			}
+		}
+		channel.close();
+	}
+	
+	//  to read the dictionary of the log, with ids of the log as user ids
+	UserDict read_dictionary () throws IOException {
+		java.io.DataInputStream in = new java.io.DataInputStream(
+				new java.io.BufferedInputStream(new FileInputStream(file), BUFFER));
+		try {
+			in.skipNBytes(dictOffset);
+			int n = in.readInt();
+			UserDict users = new UserDict();
+			for (int id = 0; id < n; id++) {
+				byte[] name = new byte[in.readInt()];
+				in.readFully(name);
+				if (users.intern(name, 0, name.length) != id) throw new IOException("payment log has a duplicate name: " + file);
+			}
+			return users;
+		} finally {
+			in.close();
+		}
+	}
+	
+	//  to convert JSON lines of input to a payment log out. It returns # of payments.
+	static long convert (File input, File out, boolean flagMillis) throws IOException {
+		UserDict users = new UserDict(); // ids are never released, so they are ids of the log
+		PaymentParser parser = new PaymentParser(flagMillis);
+		LineSource reader = LineSource.open(input, false);
+		java.io.DataOutputStream data = new java.io.DataOutputStream(
+				new java.io.BufferedOutputStream(new FileOutputStream(out), BUFFER));
+		data.write(new byte[HEADER]); // written at the end
+		long payments = 0;
+		long records = 0;
+		long first = 0;
+		long epoch = 0;
+		while (reader.next()) {
+			if (reader.end == reader.begin) continue;
+			if (!parser.parse(reader.buf, reader.begin, reader.end)) continue;
+			byte[] buf = reader.buf;
+			int actor = users.intern(buf, parser.actorBegin, parser.actorEnd);
+			int target = users.intern(buf, parser.targetBegin, parser.targetEnd);
+			if (payments == 0) {
+				first = epoch = parser.epoch;
+			}
+			long delta = parser.epoch - epoch;
+			if (delta != (int) delta) {
+				data.writeInt(-1);
+				data.writeLong(parser.epoch);
+				records++;
+				delta = 0;
+			}
+			epoch = parser.epoch;
+			data.writeInt(actor);
+			data.writeInt(target);
+			data.writeInt((int) delta);
+			records++;
+			payments++;
+		}
+		reader.close();
+		
+		long dictOffset = HEADER + records * RECORD;
+		data.writeInt(users.size());
+		for (int id = 0; id < users.size(); id++) {
+			byte[] name = users.name(id).getBytes(StandardCharsets.UTF_8);
+			data.writeInt(name.length);
+			data.write(name);
+		}
+		data.close();
+		
+		java.io.RandomAccessFile f = new java.io.RandomAccessFile(out, "rw");
+		f.writeInt(MAGIC);
+		f.writeInt(VERSION);
+		f.writeBoolean(flagMillis);
+		f.writeLong(first);
+		f.writeLong(records);
+		f.writeLong(dictOffset);
+		f.close();
+		return payments;
+	}
+}
@@ -0,0 +1,105 @@
+package mediandegree;
+
+import java.nio.charset.StandardCharsets;
+
+//  PaymentParser scans raw UTF-8 bytes of 1 input line and records where timestamp, actor and
+//  target are in the line. It does not create any String or array; offsets are kept in fields
+//  and one parser object is reused for all lines.
+//
+//  Like parse_payment(), it can handle whitespaces or tabs around ',' and ':', and
+//  it can take different order of 3 key-value pairs.
+class PaymentParser {
+	static final byte[] KEY_CREATED_TIME = {'c','r','e','a','t','e','d','_','t','i','m','e'};
+	static final byte[] KEY_ACTOR = {'a','c','t','o','r'};
+	static final byte[] KEY_TARGET = {'t','a','r','g','e','t'};
+
+	public int timeBegin, timeEnd;     // timestamp without trailing 'Z'
+	public long epoch;                 // decoded from timestamp
+	public int actorBegin, actorEnd;
+	public int targetBegin, targetEnd;
+	private int k; // byte index in line while scanning
+
+	private final TimestampDecoder decoder;
+	
+	PaymentParser () {
+		this(false);
+	}
+	
+	//  flagMillis : to decode epoch in milliseconds
+	PaymentParser (boolean flagMillis) {
+		decoder = new TimestampDecoder(flagMillis);
+	}
+	
+	//  to parse line b[begin, end). It returns false if the first 3 key-value pairs are not
+	//  created_time, actor and target (in any order), or timestamp is not well formed.
+	//  All offsets are reset first, so nothing of the previous line is kept.
+	boolean parse (byte[] b, int begin, int end) {
+		k = begin;
+		timeBegin = timeEnd = 0;
+		actorBegin = actorEnd = 0;
+		targetBegin = targetEnd = 0;
+		int seen = 0; // bits of keys found : 1 created_time, 2 actor, 4 target
+		skip(b, end, (byte) '{');
+		for (int j = 0; j < 3; j++) {
+			if (j > 0) skip(b, end, (byte) ',');
+			if (k >= end || b[k] != '\"') return false;
+			int keyBegin = ++k;
+			while (k < end && b[k] != '\"') k++;
+			int keyEnd = k++;
+			skip(b, end, (byte) ':');
+			if (k >= end || b[k] != '\"') return false;
+			int valueBegin = ++k;
+			while (k < end && b[k] != '\"') k++;
+			if (k >= end) return false;
+			int valueEnd = k++;
+			if (equals(b, keyBegin, keyEnd, KEY_CREATED_TIME)) {
+				timeBegin = valueBegin;
+				timeEnd = valueEnd - 1; // to drop 'Z'
+				seen |= 1;
+			} else if (equals(b, keyBegin, keyEnd, KEY_ACTOR)) {
+				actorBegin = valueBegin;
+				actorEnd = valueEnd;
+				seen |= 2;
+			} else if (equals(b, keyBegin, keyEnd, KEY_TARGET)) {
+				targetBegin = valueBegin;
+				targetEnd = valueEnd;
+				seen |= 4;
+			} else {
+				return false; // another key, e.g. "amount"
+			}
+		}
+		if (seen != 7) return false;
+		epoch = decoder.decode(b, timeBegin, timeEnd);
+		return epoch != TimestampDecoder.INVALID;
+	}
+
+	//  to skip spaces, tabs and separator c
+	private void skip (byte[] b, int end, byte c) {
+		while (k < end && (b[k] == ' ' || b[k] == '\t' || b[k] == c)) k++;
+	}
+
+	static boolean equals (byte[] b, int begin, int end, byte[] key) {
+		if (end - begin != key.length) return false;
+		for (int j = 0; j < key.length; j++) {
+			if (b[begin + j] != key[j]) return false;
+		}
+		return true;
+	}
+
+	//  to check if actor and target of the last parsed line are the same user.
+	//  Such a payment does not create an edge.
+	boolean self_payment (byte[] b) {
+		if (actorEnd - actorBegin != targetEnd - targetBegin) return false;
+		for (int j = actorBegin, k = targetBegin; j < actorEnd; j++, k++) {
+			if (b[j] != b[k]) return false;
+		}
+		return true;
+	}
+
+	//  to create a payment object from the last parsed line
+	Payment to_payment (byte[] b) {
+		return new Payment(new String(b, timeBegin, timeEnd - timeBegin, StandardCharsets.ISO_8859_1), epoch,
+				new String(b, actorBegin, actorEnd - actorBegin, StandardCharsets.UTF_8),
+				new String(b, targetBegin, targetEnd - targetBegin, StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,100 @@
+package mediandegree;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+//  Pipeline is the multi-threaded mode (-threads N).
+//  A reader thread copies lines of input into batches, and sends batch k to parser thread k % N.
+//  N parser threads decode timestamps, find actor and target and hash their names.
+//  The consumer (calling thread) takes batches from parser threads in the same order k % N,
+//  so payments are applied to graph g and medians are written in input order, on one thread.
+//  Threads are connected by SpscRing : for each parser thread, one ring from reader, one ring to
+//  consumer, and one ring to give used batches back to reader.
+class Pipeline {
+	static final int BATCHES = 4; // batches per parser thread
+
+	static void run (RollingMedianDegree g, LineSource reader, int threads, MedianWriter fileOut) throws IOException {
+		ArrayList<SpscRing<PaymentBatch>> toParser = new ArrayList<SpscRing<PaymentBatch>>();
+		ArrayList<SpscRing<PaymentBatch>> toConsumer = new ArrayList<SpscRing<PaymentBatch>>();
+		ArrayList<SpscRing<PaymentBatch>> toReader = new ArrayList<SpscRing<PaymentBatch>>();
+		Thread[] parsers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			SpscRing<PaymentBatch> in = new SpscRing<PaymentBatch>(BATCHES);
+			SpscRing<PaymentBatch> out = new SpscRing<PaymentBatch>(BATCHES);
+			SpscRing<PaymentBatch> free = new SpscRing<PaymentBatch>(BATCHES);
+			for (int k = 0; k < BATCHES; k++) free.put(new PaymentBatch());
+			toParser.add(in);
+			toConsumer.add(out);
+			toReader.add(free);
+			parsers[i] = new Thread(() -> {
+				PaymentParser parser = new PaymentParser(g.flagMillis);
+				while (true) {
+					PaymentBatch batch = in.take();
+					batch.parse(parser);
+					out.put(batch);
+					if (batch.eof) return;
+				}
+			}, "parser-" + i);
+			parsers[i].setDaemon(true);
+			parsers[i].start();
+		}
+		
+		IOException[] error = new IOException[1];
+		Thread readerThread = new Thread(() -> {
+			int k = 0;
+			try {
+				PaymentBatch batch = toReader.get(0).take();
+				while (reader.next()) {
+					if (reader.end == reader.begin) continue;
+					batch.add_line(reader.buf, reader.begin, reader.end);
+					if (batch.count == PaymentBatch.LINES) {
+						toParser.get(k % threads).put(batch);
+						k++;
+						batch = toReader.get(k % threads).take();
+					}
+				}
+				// the first batch with eof ends the consumer, the others stop parser threads
+				for (int i = 0; i < threads; i++) {
+					batch.eof = true;
+					toParser.get(k % threads).put(batch);
+					k++;
+					if (i + 1 < threads) batch = toReader.get(k % threads).take();
+				}
+			} catch (IOException e) {
+				error[0] = e;
+				PaymentBatch batch = new PaymentBatch();
+				batch.eof = true;
+				for (int i = 0; i < threads; i++) toParser.get((k + i) % threads).put(batch);
+			}
+		}, "reader");
+		readerThread.setDaemon(true);
+		readerThread.start();
+		
+		UserDict users = g.users;
+		for (int k = 0; ; k++) {
+			PaymentBatch batch = toConsumer.get(k % threads).take();
+			byte[] data = batch.data;
+			for (int j = 0; j < batch.count; j++) {
+				if (!batch.valid[j]) continue;
+				if (g.advance_window(batch.epoch[j]) && !batch.self[j]) {
+					g.add_payment(
+							users.intern(data, batch.actorBegin[j], batch.actorEnd[j], batch.actorHash[j]),
+							users.intern(data, batch.targetBegin[j], batch.targetEnd[j], batch.targetHash[j]),
+							batch.epoch[j]);
+				}
+				g.output_median(fileOut);
+			}
+			if (batch.eof) break;
+			batch.count = 0;
+			batch.size = 0;
+			toReader.get(k % threads).put(batch);
+		}
+		try {
+			readerThread.join();
+			for (Thread t : parsers) t.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (error[0] != null) throw error[0];
+	}
+}
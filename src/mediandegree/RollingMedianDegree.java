@@ -0,0 +1,625 @@
+package mediandegree;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+//
+//  RollingMedianDegree : the users dictionary, graph in window and median engine of
+//  one stream of payments. Payments are given in input order, and the median degree of the
+//  graph is read after each payment.
+//
+//  It is also the library API to embed the engine in another program, without input and
+//  output files : accept() takes 1 payment and returns the median after it, and acceptAll()
+//  takes payments in arrays. Engines are independent, so a program can run many of them,
+//  but one engine must be used by one thread at a time.
+//
+public class RollingMedianDegree {
+	static final int CAPACITY = 256; // initial room for users
+	static final int WINDOW = 60;    // default window in seconds
+	
+	//  Epochs are in seconds, or in milliseconds if flagMillis is true (-millis option), and
+	//  window and tolerance are in the same unit.
+	public final boolean flagMillis;
+	//  window length : edges with epoch in [max_epoch - window + 1, max_epoch] are in graph
+	public final int window;
+	//  out-of-order tolerance : a payment older than max_epoch - tolerance is ignored.
+	//  It is window - 1 by default, i.e. every payment in window is added.
+	public final int tolerance;
+	
+	//  users dictionary, key : user name, value : user id
+	UserDict users;
+	boolean flagKeepIds;   // ids are ids of a PaymentLog, and they are never released
+	
+    //  in graphV array, index : user id, value : degree of user. A user is in graph only if its degree > 0.
+	IntArray graphV;
+	
+	//  edges in parallel arrays, and adjacency : pair of user ids -> edge between them
+	EdgePool edges;
+	PairTable pairs;
+	
+	//  in graphE time wheel, slot : epoch % window, value : list of edges with this epoch, payment transaction time.
+	TimeWheel graphE;
+	long max_epoch;
+	
+	//
+	//  to add 1 edge between users u and w to graphE and update graphV
+	//
+        //  in graphV array, index : user id, value : degree of user
+        //  in graphE time wheel, slot : epoch % window, value : list of edges with this epoch, payment transaction time.
+	//
+        //  Each payment creates <= 1 new edge.
+	//  # of edges in graph <= K, where K is max # of payments in every window (60 sec by default).
+	//  also # of users (nodes) <= 2K.
+	//  Size of graphV array = O(K).
+	//  pairs update takes O(1) expected time, and graphE and graphV update takes O(1) time.
+	//
+	void add_1_edge (int uid, int wid, long epoch) {
+		int max = Math.max(uid, wid);
+		if (max >= graphV.length()) {
+			graphV.resize(Math.max(2 * graphV.length(), max + 1));
+		}
+		
+		int e = edges.add(uid, wid, epoch);
+		graphE.add(e);
+		pairs.put(uid, wid, e);
+		
+		int du = graphV.get(uid);
+		int dw = graphV.get(wid);
+		graphV.set(uid, du + 1);
+		graphV.set(wid, dw + 1);
+		if (in_sample(uid)) {
+			increase_degree(du);
+			if (top != null) top.move(uid, du, du + 1);
+		}
+		if (in_sample(wid)) {
+			increase_degree(dw);
+			if (top != null) top.move(wid, dw, dw + 1);
+		}
+	}
+	
+	//  to update the median engine when a node's degree changes from d to d + 1
+	void increase_degree (int d) {
+		if (d == 0) {
+			add_degree(1);
+		} else {
+			change_degree(d, 1);
+		}
+	}
+	
+	//
+	//  to delete 1 edge from graphV
+	//
+	//  in graphV array, index : user id, value : degree of user
+	//
+        //  Each payment creates <= 1 new edge.
+	//  # of edges in graph <= K, where K is max # of payments in every window (60 sec by default).
+	//  # of users (nodes) <= 2K.
+	//  Size of graphV array = O(K).
+	//  This method takes O(1) expected time for pairs.
+	//
+	//  User id of a user without edge is released from users dictionary.
+	//  Ids of a PaymentLog (flagKeepIds) are never released.
+	//
+	void delete_1_edge_from_V (int e) {
+		int u = edges.u.get(e);
+		int w = edges.w.get(e);
+		pairs.remove(u, w);
+		int du = graphV.get(u) - 1;
+		int dw = graphV.get(w) - 1;
+		graphV.set(u, du);
+		graphV.set(w, dw);
+		if (in_sample(u)) {
+			if (top != null) top.move(u, du + 1, du);
+			if (du == 0) {
+				delete_degree(1);
+			} else {
+				change_degree(du + 1, -1);
+			}
+		}
+		if (in_sample(w)) {
+			if (top != null) top.move(w, dw + 1, dw);
+			if (dw == 0) {
+				delete_degree(1);
+			} else {
+				change_degree(dw + 1, -1);
+			}
+		}
+		if (users != null && !flagKeepIds) {
+			if (du == 0) users.release(u);
+			if (dw == 0) users.release(w);
+		}
+	}
+	
+	//
+	//  to delete 1 epoch from graphE
+	//
+	//  in graphE time wheel, slot : epoch % window, value : list of edges with this epoch, payment transaction time.
+	//
+        //  Each payment creates <= 1 new edge.
+	//  # of edges in graph <= K, where K is max # of payments in every window (60 sec by default).
+	//  also # of users (nodes) <= 2K.
+	//  graphE update takes O(1) time.
+	//
+        //  It may delete multiple edges which are out of current window.
+        //  For each payment, at most 1 creation and 1 deletion of an edge can be done.
+        //  For whole program, runtime of deletion of edges out of current window is
+        //  bounded by O(N), where N is number of total payments, plus at most window / 64 words
+        //  of empty slots skipped for each payment which moves max epoch forward.
+        //
+	void delete_1_epoch_from_E (long epoch) {
+		int size = graphE.size();
+		int e = graphE.take(epoch);
+		if (metrics != null && e != -1) metrics.evicted.add(size - graphE.size());
+		while (e != -1) {
+			int next = edges.next.get(e);
+			delete_1_edge_from_V(e);
+			edges.release(e);
+			e = next;
+		}
+	}
+	
+	//
+	//  to move edge e to a later epoch, for a new payment between the same users.
+	//
+	//  The edge leaves the slot of its old epoch in graphE and joins the slot of the new epoch.
+	//  Users, degrees, pairs and the median engine do not change, because the graph has the same
+	//  edges before and after the payment.
+	//  This method takes O(1) time.
+	//
+	void refresh_1_edge (int e, long epoch) {
+		graphE.remove(e);
+		edges.epoch.set(e, epoch);
+		graphE.add(e);
+	}
+	
+	// to be able to count # of edges in graph for debugging
+	int count_edges () {
+		return graphE.size();
+	}
+	
+	//
+	//  fingerprint of graph : max epoch, # of edges, and names of users and epoch of each edge.
+	//  It does not depend on user ids, so graphs built from different parts of input can be
+	//  compared. Equal graphs have equal fingerprints, and different graphs have different
+	//  fingerprints with very high probability.
+	//  This method takes O(K) time.
+	//
+	long fingerprint () {
+		long f = mix(max_epoch) + graphE.size();
+		for (long t = max_epoch - window + 1; t <= max_epoch; t++) {
+			for (int e = graphE.head(t); e != -1; e = edges.next.get(e)) {
+				long pair = mix(users.hash(edges.u.get(e))) * mix(users.hash(edges.w.get(e))); // same for (u, w) and (w, u)
+				f += mix(pair ^ edges.epoch.get(e));
+			}
+		}
+		return f;
+	}
+	
+	static long mix (long x) {
+		x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+		x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return x ^ (x >>> 33);
+	}
+	
+	//
+	//  Sampling of users (-sample option) for an approximate median with less memory.
+	//  A user is in sample if a hash of its name is below sampleBelow, so the same users are in
+	//  sample in every graph, and for a PaymentLog (which loads its dictionary for the names). Only degrees of users in sample are given to the median engine, and
+	//  a payment between two users out of sample is not added to graph at all. So # of edges and
+	//  users in graph is about 2p of all for a rate p, while edges of a user in sample are all kept,
+	//  and its degree is exact.
+	//  Median of degrees in sample is within rank error e of median of all degrees with probability
+	//  >= 1 - delta, where e = sqrt(ln(2 / delta) / (2 s)) for s users in sample (DKW inequality
+	//  for a uniform sample), e.g. e <= 0.01 with delta = 0.01 needs s >= 26,492.
+	//
+	boolean flagSample;
+	long sampleBelow = 1L << 32;
+	int numDegrees;        // # of degrees in median engine, i.e. # of users in sample in graph
+	
+	//  to keep a fraction rate of users in sample. It is called before the first payment.
+	void sample_users (double rate) {
+		if (count_edges() > 0) throw new IllegalStateException("sample rate is set before the first payment");
+		flagSample = rate < 1;
+		sampleBelow = sample_below(rate);
+	}
+	
+	static long sample_below (double rate) {
+		return (long) (Math.max(0, Math.min(rate, 1)) * (1L << 32));
+	}
+	
+	boolean in_sample (int id) {
+		if (!flagSample) return true;
+		long h = (users == null) ? mix(id) : mix(users.hash(id));
+		return (h >>> 32) < sampleBelow;
+	}
+	
+	//  rank error of median with probability >= 1 - delta : 0 without sampling, 1 for an empty sample
+	double rank_error (double delta) {
+		if (!flagSample) return 0;
+		if (numDegrees == 0) return 1;
+		return Math.min(1, Math.sqrt(Math.log(2 / delta) / (2.0 * numDegrees)));
+	}
+	
+	MedianTracker tracker; // median engine
+	FenwickMedian order;   // the same degrees for quantiles, or null
+	TopUsers top;          // users by degree for top users, or null
+	Metrics metrics;       // counters of payments and evicted edges, or null
+	int[] degreeLog;       // degree updates recorded for Bench
+	int numDegreeLog;
+	
+	//  to add a degree to the median engine
+	void add_degree (int d) {
+		if (degreeLog != null) {
+			log_degree(8 * d + LOG_ADD);
+		}
+		tracker.add_degree(d);
+		if (order != null) order.add_degree(d);
+		numDegrees++;
+	}
+	
+	//  to delete a degree from the median engine
+	void delete_degree (int d) {
+		if (degreeLog != null) {
+			log_degree(8 * d + LOG_DELETE);
+		}
+		tracker.delete_degree(d);
+		if (order != null) order.delete_degree(d);
+		numDegrees--;
+	}
+	
+	//  to change a degree d to d + delta in the median engine in one step,
+	//  instead of delete_degree(d) and add_degree(d + delta)
+	void change_degree (int d, int delta) {
+		if (degreeLog != null) {
+			log_degree(8 * d + (delta > 0 ? LOG_INCREASE : LOG_DECREASE));
+		}
+		tracker.change_degree(d, delta);
+		if (order != null) order.change_degree(d, delta);
+	}
+	
+	//  to start keeping degrees in order and users by degree, for quantiles and top users.
+	//  They are built from degrees of users in graph (in sample), and then updated with each degree change.
+	void track_order () {
+		if (order != null) return;
+		order = new FenwickMedian();
+		top = new TopUsers();
+		for (int id = 0; id < graphV.length(); id++) {
+			int d = graphV.get(id);
+			if (d > 0 && in_sample(id)) {
+				order.add_degree(d);
+				top.move(id, 0, d);
+			}
+		}
+	}
+	
+	//  get_median() : to get median degree from the median engine
+	double get_median () {
+		return tracker.get_median();
+	}
+	
+	//  to start with an empty graph and median engine t
+	public RollingMedianDegree (MedianTracker t) {
+		this(t, CAPACITY);
+	}
+	
+	//  to start with room for about capacity users. Arrays grow as needed.
+	RollingMedianDegree (MedianTracker t, int capacity) {
+		this(t, capacity, WINDOW, WINDOW - 1);
+	}
+	
+	//  to start with a window of window_in seconds and out-of-order tolerance of tolerance_in
+	//  seconds, which is at most window_in - 1. graphE has one slot per second of window.
+	RollingMedianDegree (MedianTracker t, int capacity, int window_in, int tolerance_in) {
+		this(t, capacity, window_in, tolerance_in, false);
+	}
+	
+	//  If flagMillis_in is true, epochs, window_in and tolerance_in are in milliseconds, and
+	//  graphE has one slot per millisecond of window, so edges are evicted every millisecond.
+	RollingMedianDegree (MedianTracker t, int capacity, int window_in, int tolerance_in, boolean flagMillis_in) {
+		this(t, capacity, window_in, tolerance_in, flagMillis_in, false);
+	}
+	
+	//  If flagOffHeap is true, users dictionary, degrees, adjacency, edges and time wheel are kept in
+	//  direct buffers off heap. capacity is # of users and edges they hold before they grow.
+	RollingMedianDegree (MedianTracker t, int capacity, int window_in, int tolerance_in, boolean flagMillis_in,
+			boolean flagOffHeap) {
+		if (window_in < 1) throw new IllegalArgumentException("window must be >= 1: " + window_in);
+		flagMillis = flagMillis_in;
+		window = window_in;
+		tolerance = Math.max(0, Math.min(tolerance_in, window_in - 1));
+		users = new UserDict(capacity, flagOffHeap);
+		graphV = IntArray.allocate(capacity, flagOffHeap);
+		edges = new EdgePool(capacity, flagOffHeap);
+		pairs = new PairTable(capacity, flagOffHeap);
+		graphE = new TimeWheel(window, edges, flagOffHeap);
+		tracker = t;
+		max_epoch = -1;
+	}
+	
+	//  to start with an empty graph and DegreeHistogram as median engine
+	public RollingMedianDegree () {
+		this(new DegreeHistogram());
+	}
+	
+	//  to start with a window of windowSeconds instead of 60 sec
+	public RollingMedianDegree (int windowSeconds) {
+		this(new DegreeHistogram(), CAPACITY, windowSeconds, windowSeconds - 1);
+	}
+	
+	//  millisecond mode : epochs given to accept() are in milliseconds since 1970-01-01T00:00:00Z
+	public RollingMedianDegree (int windowSeconds, boolean flagMillis) {
+		this(new DegreeHistogram(), CAPACITY, windowSeconds * (flagMillis ? 1000 : 1),
+				windowSeconds * (flagMillis ? 1000 : 1) - 1, flagMillis);
+	}
+	
+	//
+	//  to add 1 payment between users actor and target at epochSeconds (seconds since
+	//  1970-01-01T00:00:00Z, or milliseconds if flagMillis), and return median degree of graph after it.
+	//  A payment out of window or from a user to itself does not change the graph,
+	//  but the median is returned for it as for every line of input file.
+	//
+	public double accept (String actor, String target, long epochSeconds) {
+		if (advance_window(epochSeconds) && !actor.equals(target)) {
+			add_payment(users.intern(actor), users.intern(target), epochSeconds);
+		}
+		return get_median();
+	}
+	
+	//  to add 1 payment with names of users in UTF-8 bytes b[actorBegin, actorEnd) and
+	//  b[targetBegin, targetEnd), without creating any String
+	public double accept (byte[] b, int actorBegin, int actorEnd, int targetBegin, int targetEnd, long epochSeconds) {
+		if (advance_window(epochSeconds) && !Arrays.equals(b, actorBegin, actorEnd, b, targetBegin, targetEnd)) {
+			add_payment(users.intern(b, actorBegin, actorEnd), users.intern(b, targetBegin, targetEnd), epochSeconds);
+		}
+		return get_median();
+	}
+	
+	//  to add 1 payment between users with numeric ids. User id n is the same user as
+	//  the name of decimal digits of n, so ids and names can be mixed in one engine.
+	public double accept (long actor, long target, long epochSeconds) {
+		if (advance_window(epochSeconds) && actor != target) {
+			int uid = users.intern(digits, 0, write_digits(actor));
+			int wid = users.intern(digits, 0, write_digits(target));
+			add_payment(uid, wid, epochSeconds);
+		}
+		return get_median();
+	}
+	
+	//  to add payments j = 0, 1, ..., epochSeconds.length - 1 in this order, and
+	//  to store the median after payment j in medians[j]
+	public void acceptAll (long[] actors, long[] targets, long[] epochSeconds, double[] medians) {
+		for (int j = 0; j < epochSeconds.length; j++) {
+			medians[j] = accept(actors[j], targets[j], epochSeconds[j]);
+		}
+	}
+	
+	public void acceptAll (int[] actors, int[] targets, long[] epochSeconds, double[] medians) {
+		for (int j = 0; j < epochSeconds.length; j++) {
+			medians[j] = accept(actors[j], targets[j], epochSeconds[j]);
+		}
+	}
+	
+	public void acceptAll (String[] actors, String[] targets, long[] epochSeconds, double[] medians) {
+		for (int j = 0; j < epochSeconds.length; j++) {
+			medians[j] = accept(actors[j], targets[j], epochSeconds[j]);
+		}
+	}
+	
+	//  median degree of graph now
+	public double median () {
+		return get_median();
+	}
+	
+	//  q-quantile of degrees of users in graph by nearest rank (0 < q <= 1), e.g. 0.99 for p99,
+	//  or -1 if graph is empty. The first call builds an order of degrees, which is then kept
+	//  up to date, so later calls take O(log D) time, where D is max degree.
+	public int quantile (double q) {
+		track_order();
+		return order.quantile(q);
+	}
+	
+	//  to put up to k users of greatest degrees into names and their degrees into degrees, from the
+	//  greatest. It returns # of users put. It takes O(k + b log D) time, where b is # of different
+	//  degrees of these users.
+	public int topUsers (int k, String[] names, int[] degrees) {
+		track_order();
+		int[] ids = new int[k];
+		int m = top.top(k, order, ids, degrees);
+		for (int j = 0; j < m; j++) names[j] = (users == null) ? Integer.toString(ids[j]) : users.name(ids[j]);
+		return m;
+	}
+	
+	//  approximate mode : to keep only a fraction rate of users in sample (see sample_users()), e.g.
+	//  0.01 for a window of millions of users. It is called before the first payment.
+	public void sampleUsers (double rate) {
+		sample_users(rate);
+	}
+	
+	//  rank error e of median() : with probability >= 1 - delta, between (0.5 - e) * n and (0.5 + e) * n
+	//  of n degrees in graph are <= median(). It is 0 without sampling.
+	public double rankError (double delta) {
+		return rank_error(delta);
+	}
+	
+	//  # of users (nodes) and # of edges in graph now
+	public int numUsers () {
+		return users.size();
+	}
+	
+	public int numEdges () {
+		return count_edges();
+	}
+	
+	private final byte[] digits = new byte[20]; // decimal digits of a numeric user id
+	
+	//  to write decimal digits of v into digits. It returns # of digits.
+	private int write_digits (long v) {
+		int len = 0;
+		if (v < 0) digits[len++] = '-';
+		long x = v;
+		do {
+			len++;
+			x /= 10;
+		} while (x != 0);
+		for (int j = len - 1; v != 0 || j == len - 1; j--) {
+			digits[j] = (byte) ('0' + Math.abs(v % 10));
+			v /= 10;
+		}
+		return len;
+	}
+	
+	//
+	//  to check epoch of a new payment with max epoch so far, update max epoch and
+	//  delete edges (possibly nodes) out of window.
+	//  It returns false if the payment is older than max_epoch - tolerance (out of window by
+	//  default) and should be ignored.
+	//
+	//  Users of the payment are interned after this, because ids of users who leave the graph
+	//  here are released and can be reused.
+	//
+	boolean advance_window (long epoch) {
+		if (epoch < max_epoch - tolerance) {
+			if (metrics != null) metrics.late.increment();
+			return false;
+		}
+		
+		// to update max epoch
+		if (max_epoch < epoch) max_epoch = epoch;
+		
+		// to delete edges (possibly nodes) out of window, i.e. max_epoch - t > window - 1.
+		// Slots with edges of epochs in [graphE.start, stop) are visited, but no more than window
+		// slots; runs of empty slots are skipped by graphE.next().
+		long stop = max_epoch - window + 1;
+		long t = graphE.next(Math.max(graphE.start, stop - graphE.window), stop);
+		while (t < stop && graphE.size() > 0) {
+			delete_1_epoch_from_E( t );
+			t = graphE.next(t + 1, stop);
+		}
+		if (graphE.start < stop) graphE.start = stop;
+		return true;
+	}
+	
+	//  to add a payment in window between users uid and wid to graph
+	void add_payment (int uid, int wid, long epoch) {
+		if (flagSample && !in_sample(uid) && !in_sample(wid)) {
+			// not in graph : ids just interned for this payment are released
+			if (users != null && !flagKeepIds) {
+				if (uid >= graphV.length() || graphV.get(uid) == 0) users.release(uid);
+				if (wid >= graphV.length() || graphV.get(wid) == 0) users.release(wid);
+			}
+			return;
+		}
+		// check existing edge
+		int e = pairs.get(uid, wid);
+		if (e != -1) {
+			if (epoch <= edges.epoch.get(e)) { // new payment has smaller epoch, and then drop it.
+				if (metrics != null) metrics.stale.increment();
+			} else {
+				refresh_1_edge(e, epoch); // new payment with bigger epoch replaces old payment.
+				if (metrics != null) metrics.accepted.increment();
+			}
+			return;
+		}
+		
+		add_1_edge(uid, wid, epoch);
+		if (metrics != null) metrics.accepted.increment();
+	}
+	
+	//  degree updates in degreeLog : 8 * degree + one of
+	static final int LOG_MEDIAN = 0, LOG_ADD = 1, LOG_DELETE = 2, LOG_INCREASE = 3, LOG_DECREASE = 4;
+	
+	//  to record a degree update for Bench
+	void log_degree (int d) {
+		if (numDegreeLog == degreeLog.length) degreeLog = Arrays.copyOf(degreeLog, 2 * numDegreeLog);
+		degreeLog[numDegreeLog++] = d;
+	}
+	
+	//  extra output columns after median : quantiles of degrees, and top users as "name:degree,..."
+	double[] columns;
+	int numTop;
+	private int[] topIds;
+	private int[] topDegrees;
+	
+	//  to output quantiles q of degrees (e.g. 0.9 and 0.99) and numTop_in users of greatest degrees
+	//  after the median in each line of output
+	void output_columns (double[] columns_in, int numTop_in) {
+		if (columns_in.length == 0 && numTop_in == 0) return;
+		columns = columns_in;
+		numTop = numTop_in;
+		topIds = new int[numTop];
+		topDegrees = new int[numTop];
+		if (columns.length > 0 || numTop > 0) track_order();
+	}
+	
+	//  output modes (-emit option) : a line for each payment, a line when median changes,
+	//  or a line for each second of max epoch
+	static final int EMIT_ALL = 0, EMIT_CHANGE = 1, EMIT_TICK = 2;
+	int emit = EMIT_ALL;
+	long seq;               // # of medians so far, i.e. line number of the median in EMIT_ALL
+	double lastMedian = Double.NaN;
+	long tick = -1;         // second of medians in tickLast, tickMin, tickMax, -1 : none
+	double tickLast, tickMin, tickMax;
+	
+	//  to output 1 median to output file corresponding to the current payment
+	void output_median (MedianWriter fileOut) throws IOException {
+		double median = get_median();
+		// System.out.println("median=" + median);
+		//System.out.println("k=" + k + "  V_size=" + users.size() + "  E_size=" + count_edges()
+				//+ "  median=" + median);
+		if (emit != EMIT_ALL) {
+			output_emit(fileOut, median);
+			return;
+		}
+		if (columns == null) {
+			fileOut.write(median);
+			return;
+		}
+		fileOut.write_number(median);
+		for (double q : columns) fileOut.write_column(order.quantile(q));
+		if (numTop > 0) {
+			int m = top.top(numTop, order, topIds, topDegrees);
+			if (m == 0) fileOut.write_no_user();
+			for (int j = 0; j < m; j++) fileOut.write_user(users, topIds[j], topDegrees[j], j == 0);
+		}
+		fileOut.end_line();
+	}
+	
+	//  EMIT_CHANGE : "seq median" when median is different from the last median written.
+	//  EMIT_TICK : "second last min max" of medians after payments in a second of max epoch, written
+	//  when max epoch moves to a later second. Second is UTC time, e.g. 2016-04-07T03:33:19Z.
+	//  Medians before the first payment in window (max epoch < 0) are not written.
+	void output_emit (MedianWriter fileOut, double median) throws IOException {
+		seq++;
+		if (emit == EMIT_CHANGE) {
+			if (median != lastMedian) {
+				lastMedian = median;
+				fileOut.write_long(seq);
+				fileOut.write_column(median);
+				fileOut.end_line();
+			}
+			return;
+		}
+		if (max_epoch < 0) return;
+		long second = flagMillis ? Math.floorDiv(max_epoch, 1000L) : max_epoch;
+		if (second != tick) {
+			output_tick(fileOut);
+			tick = second;
+			tickMin = median;
+			tickMax = median;
+		}
+		tickLast = median;
+		if (median < tickMin) tickMin = median;
+		if (median > tickMax) tickMax = median;
+	}
+	
+	//  to write the line of the last second in EMIT_TICK, e.g. at the end of input
+	void output_tick (MedianWriter fileOut) throws IOException {
+		if (tick < 0) return;
+		fileOut.write_text(java.time.Instant.ofEpochSecond(tick).toString());
+		fileOut.write_column(tickLast);
+		fileOut.write_column(tickMin);
+		fileOut.write_column(tickMax);
+		fileOut.end_line();
+		tick = -1;
+	}
+}
@@ -0,0 +1,56 @@
+package mediandegree;
+
+//  SpscRing is a lock-free bounded queue for one producer thread and one consumer thread.
+//  The producer only writes tail and the consumer only writes head. Slots are published by
+//  lazySet (store-release) of tail and freed by lazySet of head, so no lock or CAS is needed.
+class SpscRing<T> {
+	SpscRing (int capacity) {
+		int c = Integer.highestOneBit(Math.max(capacity - 1, 1)) * 2;
+		items = new Object[c];
+		mask = c - 1;
+	}
+	private final Object[] items;
+	private final int mask;
+	private final java.util.concurrent.atomic.AtomicLong head = new java.util.concurrent.atomic.AtomicLong();
+	private final java.util.concurrent.atomic.AtomicLong tail = new java.util.concurrent.atomic.AtomicLong();
+
+	boolean offer (T x) {
+		long t = tail.get();
+		if (t - head.get() == items.length) return false; // full
+		items[(int) t & mask] = x;
+		tail.lazySet(t + 1);
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	T poll () {
+		long h = head.get();
+		if (h == tail.get()) return null; // empty
+		int j = (int) h & mask;
+		T x = (T) items[j];
+		items[j] = null;
+		head.lazySet(h + 1);
+		return x;
+	}
+
+	//  to wait until x is put. It spins shortly, and then yields and parks the thread.
+	void put (T x) {
+		for (int spin = 0; !offer(x); spin++) idle(spin);
+	}
+
+	T take () {
+		T x;
+		for (int spin = 0; (x = poll()) == null; spin++) idle(spin);
+		return x;
+	}
+
+	static void idle (int spin) {
+		if (spin < 100) {
+			Thread.onSpinWait();
+		} else if (spin < 200) {
+			Thread.yield();
+		} else {
+			java.util.concurrent.locks.LockSupport.parkNanos(50000);
+		}
+	}
+}
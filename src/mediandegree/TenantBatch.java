@@ -0,0 +1,13 @@
+package mediandegree;
+
+//  TenantBatch is a batch of payments sent by EnginePool to one shard
+class TenantBatch {
+	static final int SIZE = 1024;
+	
+	public final String[] tenant = new String[SIZE];
+	public final String[] actor = new String[SIZE];
+	public final String[] target = new String[SIZE];
+	public final long[] epoch = new long[SIZE];
+	public int count;
+	public boolean eof;
+}
@@ -0,0 +1,7 @@
+package mediandegree;
+
+//  TenantListener receives medians of EnginePool. It is called on the shard thread of the tenant,
+//  in the order of payments of the tenant.
+public interface TenantListener {
+	void median (String tenant, double median);
+}
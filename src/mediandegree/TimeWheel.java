@@ -0,0 +1,101 @@
+package mediandegree;
+
+//  TimeWheel keeps edges in window (60 sec by default). It is a circular array of slots indexed by
+//  epoch % window, and each slot is an intrusive doubly linked list of edges, linked by prev and
+//  next arrays of EdgePool.
+//  Epochs of edges in graph are in [max_epoch - window + 1, max_epoch], so each slot holds edges of
+//  only one epoch. Insertion and deletion of an edge take O(1) time without any allocation,
+//  for any window length.
+//  A bitmap of slots with edges lets eviction skip runs of empty slots 64 at a time (next()),
+//  since a window in milliseconds has many slots (60,000 for 60 sec, 3.6M for 1 hour) and a
+//  sparse stream leaves most of them empty. Memory is 8 bytes per slot for head and count plus
+//  1 bit for the bitmap, which is always on heap.
+class TimeWheel {
+	TimeWheel (int window_in, EdgePool edges_in) {
+		this(window_in, edges_in, false);
+	}
+
+	TimeWheel (int window_in, EdgePool edges_in, boolean flagOffHeap) {
+		window = window_in;
+		edges = edges_in;
+		head = IntArray.allocate(window, flagOffHeap);
+		head.fill(-1);
+		count = IntArray.allocate(window, flagOffHeap);
+		occupied = new long[(window + 63) >>> 6];
+		start = Long.MIN_VALUE;
+	}
+	public final int window;
+	public long start; // all edges have epoch >= start
+	private final EdgePool edges;
+	private final IntArray head;  // first edge of each slot, -1 : empty
+	private final IntArray count; // number of edges in each slot
+	private final long[] occupied; // bit of each slot : 1 if it has edges
+	private int size;
+
+	int size () {
+		return size;
+	}
+
+	private int slot (long epoch) {
+		return (int) Math.floorMod(epoch, (long) window);
+	}
+
+	void add (int e) {
+		int j = slot(edges.epoch.get(e));
+		int h = head.get(j);
+		edges.prev.set(e, -1);
+		edges.next.set(e, h);
+		if (h != -1) edges.prev.set(h, e);
+		head.set(j, e);
+		count.set(j, count.get(j) + 1);
+		occupied[j >>> 6] |= 1L << j;
+		size++;
+	}
+
+	void remove (int e) {
+		int j = slot(edges.epoch.get(e));
+		int p = edges.prev.get(e);
+		int n = edges.next.get(e);
+		if (p != -1) {
+			edges.next.set(p, n);
+		} else {
+			head.set(j, n);
+		}
+		if (n != -1) edges.prev.set(n, p);
+		edges.prev.set(e, -1);
+		edges.next.set(e, -1);
+		count.set(j, count.get(j) - 1);
+		if (count.get(j) == 0) occupied[j >>> 6] &= ~(1L << j);
+		size--;
+	}
+
+	//  the first edge with epoch, linked by next of EdgePool, or -1
+	int head (long epoch) {
+		return head.get(slot(epoch));
+	}
+
+	//  to take out all edges with epoch. It returns the first edge of the list, linked by next
+	//  of EdgePool, or -1.
+	int take (long epoch) {
+		int j = slot(epoch);
+		int e = head.get(j);
+		head.set(j, -1);
+		size -= count.get(j);
+		count.set(j, 0);
+		occupied[j >>> 6] &= ~(1L << j);
+		return e;
+	}
+	
+	//  the first epoch in [from, to) whose slot has edges, or to if there is none.
+	//  It takes O(1 + (to - from) / 64) time.
+	long next (long from, long to) {
+		long t = from;
+		while (t < to) {
+			int j = slot(t);
+			long bits = occupied[j >>> 6] >>> j; // slots j, j + 1, ... of the same word
+			if (bits != 0) return Math.min(t + Long.numberOfTrailingZeros(bits), to);
+			t += Math.min(64 - (j & 63), window - j); // to the next word, or to slot 0
+		}
+		return to;
+	}
+}
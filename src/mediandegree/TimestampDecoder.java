@@ -0,0 +1,97 @@
+package mediandegree;
+
+//  TimestampDecoder computes epoch seconds from "yyyy-MM-ddTHH:mm:ss" (UTC) arithmetically
+//  from digit characters, instead of a SimpleDateFormat per payment.
+//  Date part of the last timestamp is cached with its epoch of midnight, so
+//  consecutive payments in the same day only decode hh:mm:ss digits.
+//  One decoder is used by one thread only.
+class TimestampDecoder {
+	static final long INVALID = Long.MIN_VALUE;
+	
+	private final byte[] day = new byte[10]; // cached "yyyy-MM-dd"
+	private long dayEpoch = INVALID;         // epoch of midnight of cached day
+	private final byte[] chars = new byte[32]; // to copy chars of String timestamp
+	public boolean flagMillis;               // to decode epoch in milliseconds, with fraction of seconds
+	
+	TimestampDecoder () {
+	}
+	
+	TimestampDecoder (boolean flagMillis_in) {
+		flagMillis = flagMillis_in;
+	}
+	
+	//  to decode timestamp in b[begin, end) to epoch in seconds. Bytes after seconds are ignored.
+	//  If flagMillis is true, epoch is in milliseconds, with fraction ".SSS" after seconds.
+	//  It returns INVALID if timestamp is not well formed.
+	long decode (byte[] b, int begin, int end) {
+		if (end - begin < 19) return INVALID;
+		if (!same_day(b, begin)) {
+			int y = digits(b, begin, 4);
+			int m = digits(b, begin + 5, 2);
+			int d = digits(b, begin + 8, 2);
+			if (y < 0 || m < 1 || m > 12 || d < 0 || b[begin+4] != '-' || b[begin+7] != '-') return INVALID;
+			System.arraycopy(b, begin, day, 0, 10);
+			dayEpoch = days_from_civil(y, m, d) * 86400L;
+		}
+		int hh = digits(b, begin + 11, 2);
+		int mm = digits(b, begin + 14, 2);
+		int ss = digits(b, begin + 17, 2);
+		if (hh < 0 || mm < 0 || ss < 0) return INVALID;
+		long epoch = dayEpoch + hh * 3600 + mm * 60 + ss;
+		if (!flagMillis) return epoch;
+		return 1000 * epoch + millis(b, begin + 19, end);
+	}
+	
+	//  milliseconds of fraction of seconds in b[k, end), e.g. ".5" is 500 and ".123456" is 123.
+	//  It is 0 if there is no fraction.
+	private static int millis (byte[] b, int k, int end) {
+		if (k >= end || b[k] != '.') return 0;
+		int v = 0;
+		int n = 0;
+		for (k++; k < end && n < 3; k++, n++) {
+			int c = b[k] - '0';
+			if (c < 0 || c > 9) break;
+			v = v * 10 + c;
+		}
+		for (; n < 3; n++) v *= 10;
+		return v;
+	}
+	
+	//  to decode timestamp in String, used by parse_payment()
+	long decode (String s) {
+		if (s.length() < 19) return INVALID;
+		int n = Math.min(s.length(), chars.length);
+		for (int j = 0; j < n; j++) chars[j] = (byte) s.charAt(j);
+		return decode(chars, 0, n);
+	}
+	
+	private boolean same_day (byte[] b, int begin) {
+		if (dayEpoch == INVALID) return false;
+		for (int j = 0; j < 10; j++) {
+			if (b[begin + j] != day[j]) return false;
+		}
+		return true;
+	}
+	
+	//  to convert n decimal digits to int. It returns -1 for a non-digit.
+	private static int digits (byte[] b, int begin, int n) {
+		int v = 0;
+		for (int j = begin; j < begin + n; j++) {
+			int c = b[j] - '0';
+			if (c < 0 || c > 9) return -1;
+			v = v * 10 + c;
+		}
+		return v;
+	}
+	
+	//  number of days from 1970-01-01 to y-m-d in proleptic Gregorian calendar.
+	//  Year starts from March, so leap day is the last day of a year.
+	static long days_from_civil (int y, int m, int d) {
+		if (m <= 2) y--;
+		long era = Math.floorDiv(y, 400);
+		long yoe = y - era * 400;                              // [0, 399]
+		long doy = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5 + d - 1; // [0, 365]
+		long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;      // [0, 146096]
+		return era * 146097 + doe - 719468;
+	}
+}
@@ -0,0 +1,66 @@
+package mediandegree;
+
+import java.util.Arrays;
+
+//  TopUsers keeps users of graph in buckets by degree, to find the most connected users.
+//  Each bucket is an intrusive doubly linked list of user ids (next and prev arrays indexed by
+//  user id), so a degree change of a user moves it between two buckets in O(1) time.
+//  Nonempty buckets are found from the top by FenwickMedian of the same degrees, so top(k) takes
+//  O(k + b log D) time, where b is # of nonempty buckets visited and D is max degree.
+class TopUsers {
+	private int[] head = new int[64]; // index : degree, value : first user, -1 : empty
+	private int[] next = new int[64]; // index : user id, value : next user with the same degree
+	private int[] prev = new int[64];
+	
+	TopUsers () {
+		Arrays.fill(head, -1);
+	}
+	
+	//  to move user u from bucket of degree from to bucket of degree to. Degree 0 is no bucket.
+	void move (int u, int from, int to) {
+		if (from > 0) {
+			int p = prev[u];
+			int n = next[u];
+			if (p != -1) {
+				next[p] = n;
+			} else {
+				head[from] = n;
+			}
+			if (n != -1) prev[n] = p;
+		}
+		if (to > 0) {
+			if (to >= head.length) {
+				int size = head.length;
+				head = Arrays.copyOf(head, Math.max(2 * size, to + 1));
+				Arrays.fill(head, size, head.length, -1);
+			}
+			if (u >= next.length) {
+				next = Arrays.copyOf(next, Math.max(2 * next.length, u + 1));
+				prev = Arrays.copyOf(prev, next.length);
+			}
+			int h = head[to];
+			next[u] = h;
+			prev[u] = -1;
+			if (h != -1) prev[h] = u;
+			head[to] = u;
+		}
+	}
+	
+	//  to put up to k users of greatest degrees into ids and their degrees into degrees, from the
+	//  greatest. Users of the same degree are in order of their last degree change, latest first.
+	//  order has the degrees of all users. It returns # of users put.
+	int top (int k, FenwickMedian order, int[] ids, int[] degrees) {
+		int m = 0;
+		int below = order.size(); // # of degrees <= d
+		while (m < k && below > 0) {
+			int d = order.kth(below);
+			for (int u = head[d]; u != -1 && m < k; u = next[u]) {
+				ids[m] = u;
+				degrees[m] = d;
+				m++;
+			}
+			below = order.count_at_most(d - 1);
+		}
+		return m;
+	}
+}
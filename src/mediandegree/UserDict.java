@@ -0,0 +1,183 @@
+package mediandegree;
+
+import java.nio.charset.StandardCharsets;
+
+//  UserDict maps user names to dense int ids [0, capacity()).
+//  Names are stored as UTF-8 bytes in one byte arena, and ids are kept in an open addressing
+//  hash table, so a name in input buffer can be looked up without creating a String.
+//  When a user leaves the graph, its id is released and reused for a later new user,
+//  so number of ids is bounded by number of users in window, not in whole input.
+class UserDict {
+	private IntArray table;    // -1 : empty slot, otherwise user id
+	private int mask;
+	private final IntArray hashes;     // index : user id, value : hash of name
+	private final IntArray nameBegin;  // index : user id, value : offset of name in arena
+	private final IntArray nameLen;    // index : user id, value : length of name, -1 : released id
+	private ByteArray arena;
+	private int arenaEnd;
+	private int deadBytes;     // bytes of released names in arena
+	private final IntArray free;       // released ids to reuse
+	private int numFree;
+	private int numIds;        // ids ever assigned
+	private int size;          // ids in use
+	private final boolean flagOffHeap;
+	private byte[] bytes = new byte[64]; // to copy a name out of arena
+
+	UserDict () {
+		this(256);
+	}
+
+	//  to start with room for about capacity users, e.g. a small capacity for many dictionaries
+	UserDict (int capacity) {
+		this(capacity, false);
+	}
+
+	//  If flagOffHeap_in is true, table, ids and names are kept off heap.
+	UserDict (int capacity, boolean flagOffHeap_in) {
+		flagOffHeap = flagOffHeap_in;
+		int c = Integer.highestOneBit(Math.max(capacity - 1, 1)) * 2;
+		table = IntArray.allocate(4 * c, flagOffHeap);
+		table.fill(-1);
+		mask = table.length() - 1;
+		hashes = IntArray.allocate(c, flagOffHeap);
+		nameBegin = IntArray.allocate(c, flagOffHeap);
+		nameLen = IntArray.allocate(c, flagOffHeap);
+		free = IntArray.allocate(c, flagOffHeap);
+		arena = ByteArray.allocate(64 * c, flagOffHeap);
+	}
+
+	int size () {
+		return size;
+	}
+
+	//  all ids are < capacity()
+	int capacity () {
+		return numIds;
+	}
+
+	static int hash (byte[] b, int begin, int end) {
+		int h = 0;
+		for (int j = begin; j < end; j++) h = 31 * h + b[j];
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	//  to get id of name b[begin, end), and assign a new id if it is not found
+	int intern (byte[] b, int begin, int end) {
+		return intern(b, begin, end, hash(b, begin, end));
+	}
+
+	//  to get id of name b[begin, end) whose hash(b, begin, end) is h
+	int intern (byte[] b, int begin, int end, int h) {
+		int j = h & mask;
+		for (int id = table.get(j); id != -1; id = table.get(j)) {
+			if (hashes.get(id) == h && same_name(id, b, begin, end)) return id;
+			j = (j + 1) & mask;
+		}
+		int id = new_id();
+		int len = end - begin;
+		if (arenaEnd + len > arena.length()) grow_arena(len);
+		arena.put(arenaEnd, b, begin, len);
+		nameBegin.set(id, arenaEnd);
+		nameLen.set(id, len);
+		hashes.set(id, h);
+		arenaEnd += len;
+		table.set(j, id);
+		size++;
+		if (2 * size > table.length()) rehash(2 * table.length());
+		return id;
+	}
+
+	//  to get id of name in String, used by parse_payment()
+	int intern (String name) {
+		byte[] b = name.getBytes(StandardCharsets.UTF_8);
+		return intern(b, 0, b.length);
+	}
+
+	String name (int id) {
+		int len = nameLen.get(id);
+		if (len > bytes.length) bytes = new byte[Math.max(2 * bytes.length, len)];
+		arena.get(nameBegin.get(id), bytes, 0, len);
+		return new String(bytes, 0, len, StandardCharsets.UTF_8);
+	}
+
+	int name_length (int id) {
+		return nameLen.get(id);
+	}
+
+	//  to copy UTF-8 bytes of name of id into dst at j, without creating a String
+	void copy_name (int id, byte[] dst, int j) {
+		arena.get(nameBegin.get(id), dst, j, nameLen.get(id));
+	}
+
+	//  hash of name of id, the same in every dictionary
+	int hash (int id) {
+		return hashes.get(id);
+	}
+
+	//  to release id of a user who is not in graph any more
+	void release (int id) {
+		int j = hashes.get(id) & mask;
+		while (table.get(j) != id) j = (j + 1) & mask;
+		// backward shift : to move later entries of the same probe sequence into the hole
+		for (int k = (j + 1) & mask; table.get(k) != -1; k = (k + 1) & mask) {
+			int h = hashes.get(table.get(k)) & mask;
+			if ((k > j && (h <= j || h > k)) || (k < j && h <= j && h > k)) {
+				table.set(j, table.get(k));
+				j = k;
+			}
+		}
+		table.set(j, -1);
+		deadBytes += nameLen.get(id);
+		nameLen.set(id, -1);
+		if (numFree == free.length()) free.resize(2 * free.length());
+		free.set(numFree++, id);
+		size--;
+	}
+
+	private int new_id () {
+		if (numFree > 0) return free.get(--numFree);
+		if (numIds == hashes.length()) {
+			int n = 2 * hashes.length();
+			hashes.resize(n);
+			nameBegin.resize(n);
+			nameLen.resize(n);
+		}
+		return numIds++;
+	}
+
+	private boolean same_name (int id, byte[] b, int begin, int end) {
+		return nameLen.get(id) == end - begin && arena.same(nameBegin.get(id), b, begin, end);
+	}
+
+	//  to make room for len more bytes. If more than half of arena holds released names,
+	//  live names are compacted, otherwise arena is doubled.
+	private void grow_arena (int len) {
+		int live = arenaEnd - deadBytes;
+		int n = arena.length();
+		while (live + len > n / 2) n *= 2;
+		ByteArray a = ByteArray.allocate(n, flagOffHeap);
+		int end = 0;
+		for (int id = 0; id < numIds; id++) {
+			if (nameLen.get(id) < 0) continue;
+			arena.copy(nameBegin.get(id), a, end, nameLen.get(id));
+			nameBegin.set(id, end);
+			end += nameLen.get(id);
+		}
+		arena = a;
+		arenaEnd = end;
+		deadBytes = 0;
+	}
+
+	private void rehash (int capacity) {
+		table = IntArray.allocate(capacity, flagOffHeap);
+		table.fill(-1);
+		mask = capacity - 1;
+		for (int id = 0; id < numIds; id++) {
+			if (nameLen.get(id) < 0) continue;
+			int j = hashes.get(id) & mask;
+			while (table.get(j) != -1) j = (j + 1) & mask;
+			table.set(j, id);
+		}
+	}
+}
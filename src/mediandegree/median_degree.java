@@ -0,0 +1,462 @@
+package mediandegree;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Scanner;
+
+//  median_degree is the program : it reads command line options (see main()), and writes medians
+//  of input payments to output file, or runs benchmarks (see Bench).
+public class median_degree {
+	static RollingMedianDegree graph; // graph of input payments
+	
+	//  to create a median engine by its name in -median and -verify options
+	static MedianTracker new_tracker (String name) {
+		if (name.equals("halfmap")) return new HalfMapMedian();
+		if (name.equals("fenwick")) return new FenwickMedian();
+		if (name.equals("histogram")) return new DegreeHistogram();
+		if (name.equals("debug")) return new DebugMedian();
+		return null;
+	}
+	
+	//  Command line options :
+	//    -parser bytes : (default) to scan raw bytes of input lines with PaymentParser
+	//    -parser text  : to read lines with Scanner and parse them with parse_payment()
+	//    -median halfmap   : (default) to use two half TreeMap as median engine
+	//    -median fenwick   : to use Fenwick tree of degree frequencies as median engine
+	//    -median histogram : to use DegreeHistogram as median engine
+	//    -verify [engine]  : to compare every median of the median engine with another engine,
+	//                        halfmap by default, or debug for the simple O(K) algorithm
+	//    -reader stream: (default) to read input file by FileInputStream with LineReader
+	//    -reader mmap  : to memory-map input file in large segments with MappedLineReader
+	//    -threads N    : to parse lines on N threads in Pipeline, and update graph on main thread
+	//    -parallel W   : to split input file into chunks and process them on W threads in ParallelChunks
+	//    -skew D       : with -parallel, max seconds of a payment later than max epoch so far (default 60)
+	//    -window W     : window of W seconds instead of 60
+	//    -tolerance T  : to ignore a payment older than max epoch - T, T <= W - 1 (default W - 1)
+	//    -millis       : millisecond mode; epochs, window and eviction are in milliseconds, and
+	//                    W and T are in seconds (W and T may be fractions, e.g. 0.25)
+	//    -checkpoint file : to save a snapshot of graph in window to file every 1,000,000 lines
+	//                       and at the end of input (see Checkpoint). It uses one thread and -parser bytes.
+	//    -checkpoint-every n : with -checkpoint, to save a snapshot every n lines
+	//    -resume       : with -checkpoint, to load the snapshot and continue from its input offset.
+	//                    Output file is cut to its length at the snapshot, and medians are appended.
+	//                    -millis, -window, -tolerance and -sample must be those of the snapshot.
+	//    -offheap      : to keep window state (users, degrees, adjacency, edges and time wheel) in direct
+	//                    ByteBuffers outside the Java heap (see OffHeap)
+	//    -capacity n   : initial capacity of window state in users and edges (default 256)
+	//    -convert file : to convert input file of JSON lines to a binary PaymentLog file, and exit.
+	//                    A PaymentLog as input file is found by its header and replayed on one thread.
+	//    -emit all|change|tick : output mode, a median for each payment (default), "seq median" when the
+	//                    median changes, or "second last min max" for each second of max epoch
+	//    -quantiles q1,q2,... : to write a column of each q-quantile of degrees (0 < q <= 1) after the median
+	//    -topk K       : to write a column of K users of greatest degrees after the median (and quantiles)
+	//    -sample p     : approximate median of a fraction p of users, chosen by a hash of name; payments
+	//                    between two users out of sample are not kept (see in_sample())
+	//    -metrics      : to count payments and latencies, and register MBean "median_degree:type=Metrics"
+	//                    to watch them by JMX (see Metrics). A summary is printed at the end.
+	//    -input file   : input file instead of ./venmo_input/venmo-trans.txt
+	//    -output file  : output file instead of ./venmo_output/output.txt
+	//    -bench [names]: to run benchmarks instead of output file (see Bench), names are
+	//                    comma separated : parse, epoch, graph, median, output, read, pool, log,
+	//                    metrics, sample, offheap, or all (default)
+	//    -input dir    : with -bench, to run benchmarks on each file in the directory
+	//    -users n, -density d, -payments m : with -bench, to run benchmarks on a generated input
+	public static void main (String[] args) throws IOException {
+		boolean flagBytes = true;
+		boolean flagMapped = false;
+		int threads = 0;
+		int workers = 0;
+		long skew = 60;
+		double window = RollingMedianDegree.WINDOW;
+		double tolerance = -1;
+		boolean flagMillis = false;
+		boolean flagOffHeap = false;
+		boolean flagMetrics = false;
+		double[] quantiles = new double[0];
+		double sample = 1;
+		int emit = RollingMedianDegree.EMIT_ALL;
+		int numTop = 0;
+		int capacity = RollingMedianDegree.CAPACITY;
+		String checkpointFn = null;
+		long checkpointEvery = Checkpoint.EVERY;
+		boolean flagResume = false;
+		String convertFn = null;
+		String bench = null;
+		String engine = "halfmap";
+		String reference = null;
+		String fn = "./venmo_input/venmo-trans.txt";
+		String outputFn = "./venmo_output/output.txt";
+		int benchUsers = 0, benchDensity = 2, benchPayments = 100000;
+		for (int j = 0; j < args.length; j++) {
+			if (args[j].equals("-parser") && j + 1 < args.length) {
+				flagBytes = !args[++j].equals("text");
+			} else if (args[j].equals("-reader") && j + 1 < args.length) {
+				flagMapped = args[++j].equals("mmap");
+			} else if (args[j].equals("-threads") && j + 1 < args.length) {
+				threads = Integer.parseInt(args[++j]);
+			} else if (args[j].equals("-parallel") && j + 1 < args.length) {
+				workers = Integer.parseInt(args[++j]);
+			} else if (args[j].equals("-skew") && j + 1 < args.length) {
+				skew = Long.parseLong(args[++j]);
+			} else if (args[j].equals("-window") && j + 1 < args.length) {
+				window = Double.parseDouble(args[++j]);
+			} else if (args[j].equals("-tolerance") && j + 1 < args.length) {
+				tolerance = Double.parseDouble(args[++j]);
+			} else if (args[j].equals("-millis")) {
+				flagMillis = true;
+			} else if (args[j].equals("-quantiles") && j + 1 < args.length) {
+				String[] qs = args[++j].split(",");
+				quantiles = new double[qs.length];
+				for (int k = 0; k < qs.length; k++) {
+					quantiles[k] = Double.parseDouble(qs[k]);
+					if (!(quantiles[k] > 0 && quantiles[k] <= 1)) {
+						System.out.println("a quantile must be in (0, 1]: " + qs[k]);
+						return;
+					}
+				}
+			} else if (args[j].equals("-emit") && j + 1 < args.length) {
+				String mode = args[++j];
+				if (mode.equals("all")) {
+					emit = RollingMedianDegree.EMIT_ALL;
+				} else if (mode.equals("change")) {
+					emit = RollingMedianDegree.EMIT_CHANGE;
+				} else if (mode.equals("tick")) {
+					emit = RollingMedianDegree.EMIT_TICK;
+				} else {
+					System.out.println("unknown output mode: " + mode);
+					return;
+				}
+			} else if (args[j].equals("-sample") && j + 1 < args.length) {
+				sample = Double.parseDouble(args[++j]);
+				if (!(sample > 0 && sample <= 1)) {
+					System.out.println("a sample rate must be in (0, 1]: " + sample);
+					return;
+				}
+			} else if (args[j].equals("-topk") && j + 1 < args.length) {
+				numTop = Integer.parseInt(args[++j]);
+			} else if (args[j].equals("-metrics")) {
+				flagMetrics = true;
+			} else if (args[j].equals("-offheap")) {
+				flagOffHeap = true;
+			} else if (args[j].equals("-capacity") && j + 1 < args.length) {
+				capacity = Integer.parseInt(args[++j]);
+			} else if (args[j].equals("-checkpoint") && j + 1 < args.length) {
+				checkpointFn = args[++j];
+			} else if (args[j].equals("-checkpoint-every") && j + 1 < args.length) {
+				checkpointEvery = Long.parseLong(args[++j]);
+			} else if (args[j].equals("-resume")) {
+				flagResume = true;
+			} else if (args[j].equals("-convert") && j + 1 < args.length) {
+				convertFn = args[++j];
+			} else if (args[j].equals("-input") && j + 1 < args.length) {
+				fn = args[++j];
+			} else if (args[j].equals("-output") && j + 1 < args.length) {
+				outputFn = args[++j];
+			} else if (args[j].equals("-users") && j + 1 < args.length) {
+				benchUsers = Integer.parseInt(args[++j]);
+			} else if (args[j].equals("-density") && j + 1 < args.length) {
+				benchDensity = Integer.parseInt(args[++j]);
+			} else if (args[j].equals("-payments") && j + 1 < args.length) {
+				benchPayments = Integer.parseInt(args[++j]);
+			} else if (args[j].equals("-median") && j + 1 < args.length && new_tracker(args[j+1]) != null) {
+				engine = args[++j];
+			} else if (args[j].equals("-verify")) {
+				reference = (j + 1 < args.length && new_tracker(args[j+1]) != null) ? args[++j] : "halfmap";
+			} else if (args[j].equals("-bench")) {
+				bench = (j + 1 < args.length && !args[j+1].startsWith("-")) ? args[++j] : "all";
+			} else {
+				System.out.println("unknown option: " + args[j]);
+				return;
+			}
+		}
+		
+		if (bench != null) {
+			Bench.run(bench, fn, benchUsers, benchDensity, benchPayments);
+			return;
+		}
+		
+		if (convertFn != null) {
+			long n = PaymentLog.convert(new File(fn), new File(convertFn), flagMillis);
+			System.out.println(n + " payments converted to " + convertFn);
+			return;
+		}
+		PaymentLog log = PaymentLog.is_log(new File(fn)) ? new PaymentLog(new File(fn)) : null;
+		if (log != null) {
+			if (threads > 0 || workers > 0 || checkpointFn != null) {
+				System.out.println("a payment log is replayed on one thread, without -threads, -parallel or -checkpoint");
+				return;
+			}
+			flagMillis = log.flagMillis;
+		}
+		
+		Checkpoint checkpoint = null;
+		if (checkpointFn != null) {
+			if (threads > 0 || workers > 0 || !flagBytes) {
+				System.out.println("-checkpoint is not supported with -threads, -parallel or -parser text");
+				return;
+			}
+			checkpoint = new Checkpoint(new File(checkpointFn), checkpointEvery);
+		} else if (flagResume) {
+			System.out.println("-resume needs -checkpoint file");
+			return;
+		}
+		if (emit != RollingMedianDegree.EMIT_ALL && (workers > 0 || checkpoint != null || quantiles.length > 0 || numTop > 0)) {
+			System.out.println("-emit change or tick is not supported with -parallel, -checkpoint, -quantiles or -topk");
+			return;
+		}
+		
+		long startTime = System.currentTimeMillis();
+		
+		final String name = engine, referenceName = reference;
+		final boolean flagMs = flagMillis, flagDirect = flagOffHeap;
+		final int initialCapacity = capacity;
+		final int unit = flagMillis ? 1000 : 1; // epochs per second
+		final int windowTicks = (int) Math.round(window * unit);
+		final int toleranceTicks = (tolerance < 0) ? windowTicks - 1 : (int) Math.round(tolerance * unit);
+		Payment.decoder.flagMillis = flagMillis;
+		java.util.function.Supplier<MedianTracker> trackers = () -> {
+			MedianTracker t = new_tracker(name);
+			if (referenceName != null) {
+				t = new CheckedMedian(t, new_tracker(referenceName));
+			}
+			return t;
+		};
+		final double[] columns = quantiles;
+		final int numColumnsTop = numTop;
+		final double rate = sample;
+		final int outputMode = emit;
+		final Metrics metrics = flagMetrics ? new Metrics() : null;
+		if (metrics != null) {
+			try {
+				metrics.register();
+			} catch (javax.management.JMException e) {
+				System.out.println("cannot register metrics: " + e);
+				return;
+			}
+		}
+		java.util.function.Supplier<RollingMedianDegree> graphs = () -> {
+			RollingMedianDegree g = new RollingMedianDegree(trackers.get(), initialCapacity, windowTicks, toleranceTicks,
+					flagMs, flagDirect);
+			g.sample_users(rate);
+			g.output_columns(columns, numColumnsTop);
+			g.emit = outputMode;
+			if (metrics != null) {
+				g.metrics = metrics;
+				metrics.watch(g);
+			}
+			return g;
+		};
+		File f = new File(fn);
+		File output = new File(outputFn);
+		MedianWriter fileOut;
+		long inputOffset = 0;
+		if (flagResume) {
+			String mismatch = checkpoint.mismatch(flagMillis, windowTicks, toleranceTicks, sample);
+			if (mismatch != null) {
+				System.out.println("-resume with other options: " + mismatch);
+				return;
+			}
+			graph = checkpoint.load(trackers.get(), capacity, flagOffHeap);
+			graph.output_columns(quantiles, numTop);
+			if (metrics != null) {
+				graph.metrics = metrics;
+				metrics.watch(graph);
+			}
+			inputOffset = checkpoint.inputOffset;
+			fileOut = new MedianWriter(output, checkpoint.outputOffset);
+		} else {
+			graph = graphs.get();
+			fileOut = new MedianWriter(output);
+		}
+		
+		if (log != null) {
+			log.run(graph, fileOut);
+		} else if (checkpoint != null) {
+			LineSource reader = LineSource.open(f, flagMapped, inputOffset);
+			run_lines(graph, reader, fileOut, checkpoint);
+			reader.close();
+		} else if (workers > 0) {
+			ParallelChunks chunks = new ParallelChunks(f, workers, skew, graphs);
+			chunks.run(fileOut);
+			if (chunks.reruns > 0) System.out.println(chunks.reruns + " chunks processed again after warm-up");
+		} else if (flagBytes) {
+			LineSource reader = LineSource.open(f, flagMapped);
+			if (threads > 0) {
+				Pipeline.run(graph, reader, threads, fileOut);
+			} else {
+				run_lines(graph, reader, fileOut);
+			}
+			reader.close();
+		} else {
+			Scanner scan = new Scanner(f);
+			String line = null;
+			while (scan.hasNextLine()) {
+			    line = scan.nextLine();
+			    if (line == null || line.length() == 0) continue;
+				StringBuffer lineBuf = new StringBuffer(line);
+				Payment p = parse_payment( lineBuf );
+				if (p == null) continue; // not a valid payment : no output line, as with -parser bytes
+				if (graph.advance_window(p.epoch) && !p.actor.equals(p.target)) {
+					graph.add_payment(graph.users.intern(p.actor), graph.users.intern(p.target), p.epoch);
+				}
+				graph.output_median(fileOut);
+			}
+			scan.close();
+		}
+		
+		graph.output_tick(fileOut);
+		
+		long stopTime = System.currentTimeMillis();
+		long elapsedTime = stopTime - startTime;
+		System.out.println(elapsedTime + " ms");
+		if (flagOffHeap) System.out.println((OffHeap.bytes() >> 20) + " MB allocated off heap");
+		if (metrics != null) System.out.println(metrics);
+		if (sample < 1 && workers == 0) {
+			System.out.println(graph.numDegrees + " users in sample, rank error of last median <= "
+					+ String.format("%.4f", graph.rank_error(0.01)) + " with probability 0.99");
+		}
+		
+		fileOut.close();
+	}
+	
+	//  to process all input lines on one thread with graph g. If fileOut is null, payments
+	//  only update graph, e.g. for warm-up in ParallelChunks.
+	static void run_lines (RollingMedianDegree g, LineSource reader, MedianWriter fileOut) throws IOException {
+		run_lines(g, reader, fileOut, null);
+	}
+	
+	//  to process all input lines, and to save a snapshot of g every checkpoint.every lines and
+	//  at the end of input, if checkpoint is not null
+	static void run_lines (RollingMedianDegree g, LineSource reader, MedianWriter fileOut, Checkpoint checkpoint)
+			throws IOException {
+		PaymentParser parser = new PaymentParser(g.flagMillis);
+		Metrics metrics = g.metrics;
+		long lines = 0;
+		while (true) {
+			if (checkpoint != null && lines > 0 && lines % checkpoint.every == 0) {
+				checkpoint.save(g, reader.offset(), fileOut);
+			}
+			if (!reader.next()) break;
+			lines++;
+			if (reader.end == reader.begin) continue;
+			if (metrics != null && (lines & (Metrics.SAMPLE - 1)) == 0) {
+				run_line_timed(g, reader, fileOut, parser, metrics);
+				continue;
+			}
+			if (!parser.parse(reader.buf, reader.begin, reader.end)) continue;
+			byte[] buf = reader.buf;
+			if (g.advance_window(parser.epoch) && !parser.self_payment(buf)) {
+				g.add_payment(g.users.intern(buf, parser.actorBegin, parser.actorEnd),
+						g.users.intern(buf, parser.targetBegin, parser.targetEnd), parser.epoch);
+			}
+			if (fileOut != null) g.output_median(fileOut);
+		}
+		if (checkpoint != null) checkpoint.save(g, reader.offset(), fileOut);
+	}
+	
+	//  to process 1 line as run_lines() does, and to record latencies of its stages in metrics
+	static void run_line_timed (RollingMedianDegree g, LineSource reader, MedianWriter fileOut, PaymentParser parser,
+			Metrics metrics) throws IOException {
+		long t0 = System.nanoTime();
+		if (!parser.parse(reader.buf, reader.begin, reader.end)) return;
+		byte[] buf = reader.buf;
+		long t1 = System.nanoTime();
+		if (g.advance_window(parser.epoch) && !parser.self_payment(buf)) {
+			g.add_payment(g.users.intern(buf, parser.actorBegin, parser.actorEnd),
+					g.users.intern(buf, parser.targetBegin, parser.targetEnd), parser.epoch);
+		}
+		long t2 = System.nanoTime();
+		metrics.parse.record(t1 - t0);
+		metrics.update.record(t2 - t1);
+		if (fileOut != null) {
+			g.output_median(fileOut);
+			metrics.output.record(System.nanoTime() - t2);
+		}
+	}
+	
+	static long allocated_bytes () {
+		java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+	
+	/*
+	      This parser can handle whitespaces or tabs around ',' separating key-value pairs and
+	      spaces or tabs around ':' between a key (actor, target, created_time) and its value.
+	      It can also take different order of 3 pairs. It returns null if the 3 pairs are not
+	      created_time, actor and target, the line ends before them, or timestamp is not well formed.
+	 */
+	static Payment parse_payment(StringBuffer line) {
+		int k = 0; // char index in line
+		int len = line.length();
+		int begin[] = new int[6];
+		int end[] = new int[6];
+		while (k < len && (line.charAt(k) == ' ' || line.charAt(k) == '\t' || line.charAt(k) == '{')) k++;
+		assert(line.charAt(k) == '\"');
+		k++;
+		begin[0] = k;
+		while (k < len && line.charAt(k) != '\"') k++;
+		end[0] = k;
+		k++;
+		while (k < len && (line.charAt(k) == ' ' || line.charAt(k) == '\t' || line.charAt(k) == ':')) k++;
+		assert(line.charAt(k) == '\"');
+		k++;
+		begin[1] = k;
+		while (k < len && line.charAt(k) != '\"') k++;
+		end[1] = k;
+		k++;
+		while (k < len && (line.charAt(k) == ' ' || line.charAt(k) == '\t' || line.charAt(k) == ',')) k++;
+		assert(line.charAt(k) == '\"');
+		k++;
+		begin[2] = k;
+		while (k < len && line.charAt(k) != '\"') k++;
+		end[2] = k;
+		k++;
+		while (k < len && (line.charAt(k) == ' ' || line.charAt(k) == '\t' || line.charAt(k) == ':')) k++;
+		assert(line.charAt(k) == '\"');
+		k++;
+		begin[3] = k;
+		while (k < len && line.charAt(k) != '\"') k++;
+		end[3] = k;
+		k++;
+		while (k < len && (line.charAt(k) == ' ' || line.charAt(k) == '\t' || line.charAt(k) == ',')) k++;
+		assert(line.charAt(k) == '\"');
+		k++;
+		begin[4] = k;
+		while (k < len && line.charAt(k) != '\"') k++;
+		end[4] = k;
+		k++;
+		while (k < len && (line.charAt(k) == ' ' || line.charAt(k) == '\t' || line.charAt(k) == ':')) k++;
+		assert(line.charAt(k) == '\"');
+		k++;
+		begin[5] = k;
+		while (k < len && line.charAt(k) != '\"') k++;
+		end[5] = k;
+		if (end[5] >= len) return null; // line ends before 3 key-value pairs
+		String timestamp = null;
+		String actor = null;
+		String target = null;
+		for (int j = 0; j < 5; j = j + 2) {
+			String key = line.substring(begin[j], end[j]);
+			String value = line.substring(begin[j+1], end[j+1]);
+			if (key.equals("created_time")) {
+				int len_1 = value.length() - 1;
+				timestamp = value.substring(0, len_1);
+			} else if (key.equals("actor")) {
+				actor = value;
+			} else if (key.equals("target")) {
+				target = value;
+			} else {
+				return null; // another key, e.g. "amount"
+			}
+		}
+		if (timestamp == null || actor == null || target == null) return null;
+		long epoch = Payment.decoder.decode(timestamp);
+		if (epoch == TimestampDecoder.INVALID) return null;
+		return (new Payment(timestamp, epoch, actor, target));
+	}
+	
+
+}